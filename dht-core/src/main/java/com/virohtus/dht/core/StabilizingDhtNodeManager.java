@@ -1,7 +1,7 @@
 package com.virohtus.dht.core;
 
 import com.virohtus.dht.core.engine.Dispatcher;
-import com.virohtus.dht.core.engine.SingleThreadedDispatcher;
+import com.virohtus.dht.core.engine.PartitionedDispatcher;
 import com.virohtus.dht.core.engine.store.LogStore;
 import com.virohtus.dht.core.engine.store.network.NetworkStore;
 import com.virohtus.dht.core.engine.store.network.StabilizationStore;
@@ -10,6 +10,7 @@ import com.virohtus.dht.core.engine.store.server.ServerStore;
 import com.virohtus.dht.core.network.*;
 import com.virohtus.dht.core.network.peer.Peer;
 import com.virohtus.dht.core.network.peer.PeerNotFoundException;
+import com.virohtus.dht.core.transport.connection.EventLoopGroup;
 import com.virohtus.dht.core.util.IdService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +27,7 @@ public class StabilizingDhtNodeManager implements DhtNodeManager {
     private static final int SHUTDOWN_TIMEOUT = 3; // seconds
     private final NodeManager nodeManager;
     private final ExecutorService executorService;
+    private final EventLoopGroup eventLoopGroup;
     private final Dispatcher dispatcher;
     private final ServerStore serverStore;
     private final PeerStore peerStore;
@@ -33,13 +35,19 @@ public class StabilizingDhtNodeManager implements DhtNodeManager {
     private final StabilizationStore stabilizationStore;
 
     public StabilizingDhtNodeManager(int serverPort) throws IOException {
+        this(serverPort, EventLoopGroup.getDefaultThreadCount());
+    }
+
+    public StabilizingDhtNodeManager(int serverPort, int eventLoopThreads) throws IOException {
         Node node = new Node(new NodeIdentity(new IdService().generateId(), null), new Keyspace(), new FingerTable());
         nodeManager = new NodeManager(node);
         executorService = Executors.newCachedThreadPool();
-        dispatcher = new SingleThreadedDispatcher(executorService);
+        eventLoopGroup = new EventLoopGroup(eventLoopThreads);
+        // ActionAffinity keeps every action the stores handle on the ring key, see there for what spreads
+        dispatcher = new PartitionedDispatcher(executorService);
 
-        peerStore = new PeerStore(dispatcher, executorService);
-        serverStore = new ServerStore(dispatcher, executorService, peerStore, new InetSocketAddress(serverPort));
+        peerStore = new PeerStore(dispatcher, executorService, eventLoopGroup);
+        serverStore = new ServerStore(dispatcher, executorService, eventLoopGroup, peerStore, new InetSocketAddress(serverPort));
         networkStore = new NetworkStore(this, nodeManager, peerStore);
         stabilizationStore = new StabilizationStore(executorService, nodeManager, peerStore);
 
@@ -65,6 +73,8 @@ public class StabilizingDhtNodeManager implements DhtNodeManager {
         dispatcher.shutdown();
         stabilizationStore.shutdown();
         executorService.shutdown();
+        LOG.info("event loop group at shutdown: " + eventLoopGroup);
+        eventLoopGroup.shutdown(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
 
         try {
             executorService.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
@@ -94,8 +104,12 @@ public class StabilizingDhtNodeManager implements DhtNodeManager {
         return networkStore.getNetwork();
     }
 
+    public EventLoopGroup getEventLoopGroup() {
+        return eventLoopGroup;
+    }
+
     private void connect(SocketAddress socketAddress) throws IOException, TimeoutException, InterruptedException {
-        Peer peer = peerStore.createPeer(socketAddress);
+        Peer peer = peerStore.getOrCreatePeer(socketAddress);
     }
 
     public static void main(String[] args) throws IOException, ExecutionException, InterruptedException, TimeoutException {
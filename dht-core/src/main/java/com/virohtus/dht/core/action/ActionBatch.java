@@ -0,0 +1,81 @@
+package com.virohtus.dht.core.action;
+
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ActionBatch extends TransportableAction {
+
+    private int streamId;
+    private List<TransportableAction> actions;
+
+    public ActionBatch(int streamId, List<TransportableAction> actions) {
+        for (TransportableAction action : actions) {
+            if(action instanceof ActionBatch) {
+                throw new IllegalArgumentException("batches can not be nested");
+            }
+        }
+        this.streamId = streamId;
+        this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+    }
+
+    public ActionBatch(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
+    }
+
+    public List<TransportableAction> getActions() {
+        return actions;
+    }
+
+    @Override
+    public int getType() {
+        return DhtProtocol.ACTION_BATCH;
+    }
+
+    @Override
+    public int getStreamId() {
+        return streamId;
+    }
+
+    @Override
+    public int getWireSize() throws IOException {
+        int size = super.getWireSize() + Integer.BYTES;
+        for (TransportableAction action : actions) {
+            size += action.getWireSize();
+        }
+        return size;
+    }
+
+    // actions are self delimiting so they are written back to back behind the count
+    @Override
+    public void toWire(DhtOutputStream outputStream) throws IOException {
+        super.toWire(outputStream);
+        outputStream.writeInt(actions.size());
+        for (TransportableAction action : actions) {
+            action.toWire(outputStream);
+        }
+    }
+
+    @Override
+    public void fromWire(DhtInputStream inputStream) throws IOException {
+        super.fromWire(inputStream);
+        int actionCount = inputStream.readInt();
+        if(actionCount < 0 || actionCount > DhtProtocol.MAX_BATCH_SIZE) {
+            throw new IOException("invalid batch size: " + actionCount);
+        }
+        List<TransportableAction> received = new ArrayList<>(actionCount);
+        for(int i = 0; i < actionCount; i++) {
+            TransportableAction action = ActionFactory.getInstance().createTransportableAction(inputStream);
+            if(action instanceof ActionBatch) {
+                throw new IOException("received nested batch");
+            }
+            received.add(action);
+        }
+        actions = Collections.unmodifiableList(received);
+    }
+}
@@ -0,0 +1,9 @@
+package com.virohtus.dht.core.action;
+
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+
+import java.io.IOException;
+
+public interface ActionDecoder {
+    TransportableAction decode(DhtInputStream inputStream) throws IOException;
+}
@@ -7,37 +7,78 @@ import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 public class ActionFactory {
 
+    private static final int INITIAL_REGISTRY_SIZE = 16;
     private static final ActionFactory instance = new ActionFactory();
+    private final Object registryLock;
+    private volatile ActionDecoder[] decoders;
 
-    private ActionFactory() {}
+    private ActionFactory() {
+        registryLock = new Object();
+        decoders = new ActionDecoder[INITIAL_REGISTRY_SIZE];
+        register(DhtProtocol.JOIN_NETWORK_REQUEST, JoinNetworkRequest::new);
+        register(DhtProtocol.JOIN_NETWORK_RESPONSE, JoinNetworkResponse::new);
+        register(DhtProtocol.GET_NODE_IDENTITY_REQUEST, GetNodeIdentityRequest::new);
+        register(DhtProtocol.GET_NODE_IDENTITY_RESPONSE, GetNodeIdentityResponse::new);
+        register(DhtProtocol.GET_NETWORK, GetNetwork::new);
+        register(DhtProtocol.GET_NODE_REQUEST, GetNodeRequest::new);
+        register(DhtProtocol.GET_NODE_RESPONSE, GetNodeResponse::new);
+        register(DhtProtocol.SET_PREDECESSOR, SetPredecessor::new);
+        register(DhtProtocol.ACTION_BATCH, ActionBatch::new);
+        register(DhtProtocol.OVERLOADED_RESPONSE, OverloadedResponse::new);
+    }
 
     public static ActionFactory getInstance() {
         return instance;
     }
 
+    // registrations are rare and copy the table, lookups on the receive path never lock
+    public void register(int type, ActionDecoder decoder) {
+        if(type < 0 || type > DhtProtocol.MAX_ACTION_TYPE) {
+            throw new IllegalArgumentException("TransportableAction type out of range: " + type);
+        }
+        synchronized (registryLock) {
+            ActionDecoder[] current = decoders;
+            if(type < current.length && current[type] != null) {
+                throw new IllegalArgumentException("TransportableAction type already registered: " + type);
+            }
+            int size = type < current.length ? current.length : Math.max(current.length * 2, type + 1);
+            ActionDecoder[] updated = Arrays.copyOf(current, size);
+            updated[type] = decoder;
+            decoders = updated;
+        }
+    }
+
+    public boolean isRegistered(int type) {
+        ActionDecoder[] current = decoders;
+        return type >= 0 && type < current.length && current[type] != null;
+    }
+
     public TransportableAction createTransportableAction(DhtEvent event) throws IOException {
-        int type;
         try (
             ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(event.getPayload());
             DhtInputStream inputStream = new DhtInputStream(byteArrayInputStream)
         ) {
-            type = inputStream.readInt();
+            return createTransportableAction(inputStream);
         }
+    }
 
-        switch (type) {
-            case DhtProtocol.JOIN_NETWORK_REQUEST: return new JoinNetworkRequest(event);
-            case DhtProtocol.JOIN_NETWORK_RESPONSE: return new JoinNetworkResponse(event);
-            case DhtProtocol.GET_NODE_IDENTITY_REQUEST: return new GetNodeIdentityRequest(event);
-            case DhtProtocol.GET_NODE_IDENTITY_RESPONSE: return new GetNodeIdentityResponse(event);
-            case DhtProtocol.GET_NETWORK: return new GetNetwork(event);
-            case DhtProtocol.GET_NODE_REQUEST: return new GetNodeRequest(event);
-            case DhtProtocol.GET_NODE_RESPONSE: return new GetNodeResponse(event);
-            case DhtProtocol.SET_PREDECESSOR: return new SetPredecessor(event);
+    // the type is peeked and the action then decodes itself from the same reader
+    public TransportableAction createTransportableAction(DhtInputStream inputStream) throws IOException {
+        if(!inputStream.markSupported()) {
+            throw new IllegalArgumentException("decoding TransportableActions requires a resettable stream");
         }
+        inputStream.mark(Integer.BYTES);
+        int type = inputStream.readInt();
+        inputStream.reset();
 
-        throw new IOException("unsupported TransportableAction type: " + type);
+        ActionDecoder[] current = decoders;
+        if(type < 0 || type >= current.length || current[type] == null) {
+            throw new IOException("unsupported TransportableAction type: " + type);
+        }
+        return current[type].decode(inputStream);
     }
 }
@@ -2,38 +2,62 @@ package com.virohtus.dht.core.action;
 
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
-import com.virohtus.dht.core.transport.protocol.DhtProtocol;
-import com.virohtus.dht.core.util.IdService;
+import com.virohtus.dht.core.util.Deadline;
 
 import java.io.IOException;
 
 public abstract class RequestAction extends TransportableAction {
 
-    private String requestId;
+    private long requestId;
+    private Deadline deadline;
 
     public RequestAction() {
         super();
-        requestId = new IdService().generateId();
+        deadline = Deadline.NONE;
     }
 
-    public RequestAction(DhtEvent event) throws IOException {
-        super(event);
+    public RequestAction(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
     }
 
-    public String getRequestId() {
+    public long getRequestId() {
         return requestId;
     }
 
+    // assigned by the sending peer, ids are only unique per connection
+    public void setRequestId(long requestId) {
+        this.requestId = requestId;
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    // keep the incoming deadline when forwarding so the budget shrinks with every hop
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    public boolean isExpired() {
+        return deadline.isExpired();
+    }
+
+    @Override
+    public int getWireSize() throws IOException {
+        return super.getWireSize() + Long.BYTES + deadline.getWireSize();
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         super.toWire(outputStream);
-        outputStream.writeSizedData(requestId.getBytes(DhtProtocol.STRING_ENCODING));
+        outputStream.writeLong(requestId);
+        deadline.toWire(outputStream);
     }
 
     @Override
     public void fromWire(DhtInputStream inputStream) throws IOException {
         super.fromWire(inputStream);
-        requestId = new String(inputStream.readSizedData(), DhtProtocol.STRING_ENCODING);
+        requestId = inputStream.readLong();
+        deadline = new Deadline(inputStream);
     }
 }
@@ -2,37 +2,40 @@ package com.virohtus.dht.core.action;
 
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
-import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 
 import java.io.IOException;
 
 public abstract class ResponseAction extends TransportableAction {
 
-    private String requestId;
+    private long requestId;
 
-    public ResponseAction(String requestId) {
+    public ResponseAction(long requestId) {
         super();
         this.requestId = requestId;
     }
 
-    public String getRequestId() {
+    public long getRequestId() {
         return requestId;
     }
 
-    public ResponseAction(DhtEvent dhtEvent) throws IOException {
-        super(dhtEvent);
+    public ResponseAction(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
+    }
+
+    @Override
+    public int getWireSize() throws IOException {
+        return super.getWireSize() + Long.BYTES;
     }
 
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         super.toWire(outputStream);
-        outputStream.writeSizedData(requestId.getBytes(DhtProtocol.STRING_ENCODING));
+        outputStream.writeLong(requestId);
     }
 
     @Override
     public void fromWire(DhtInputStream inputStream) throws IOException {
         super.fromWire(inputStream);
-        requestId = new String(inputStream.readSizedData(), DhtProtocol.STRING_ENCODING);
+        requestId = inputStream.readLong();
     }
 }
@@ -1,26 +1,31 @@
 package com.virohtus.dht.core.action;
 
 import com.virohtus.dht.core.network.peer.Peer;
+import com.virohtus.dht.core.transport.io.ByteBufferOutputStream;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 import com.virohtus.dht.core.transport.protocol.Transportable;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public abstract class TransportableAction extends Action implements Transportable, Wireable {
 
     private Peer sourcePeer;
 
     public TransportableAction() {}
-    public TransportableAction(DhtEvent dhtEvent) throws IOException {
-        deserialize(dhtEvent.getPayload());
+    public TransportableAction(DhtInputStream inputStream) throws IOException {
+        fromWire(inputStream);
     }
 
     public abstract int getType();
 
+    public int getStreamId() {
+        return DhtProtocol.CONTROL_STREAM;
+    }
+
     public final Peer getSourcePeer() {
         return sourcePeer;
     }
@@ -35,13 +40,19 @@ public abstract class TransportableAction extends Action implements Transportabl
 
     @Override
     public final byte[] serialize() throws IOException {
-        try (
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            DhtOutputStream outputStream = new DhtOutputStream(byteArrayOutputStream)
-        ) {
+        ByteBuffer buffer = ByteBuffer.allocate(getWireSize());
+        serialize(buffer);
+        return buffer.array();
+    }
+
+    public final void serialize(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        try (DhtOutputStream outputStream = new DhtOutputStream(new ByteBufferOutputStream(buffer))) {
             toWire(outputStream);
-            outputStream.flush();
-            return byteArrayOutputStream.toByteArray();
+        }
+        int written = buffer.position() - start;
+        if(written != getWireSize()) {
+            throw new IOException("action " + getType() + " wrote " + written + " bytes, expected " + getWireSize());
         }
     }
 
@@ -55,6 +66,11 @@ public abstract class TransportableAction extends Action implements Transportabl
         }
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        return Integer.BYTES;
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         outputStream.writeInt(getType());
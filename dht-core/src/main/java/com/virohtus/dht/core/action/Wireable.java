@@ -6,6 +6,8 @@ import com.virohtus.dht.core.transport.io.DhtOutputStream;
 import java.io.IOException;
 
 public interface Wireable {
+    // exact number of bytes toWire will write, lets callers allocate the buffer once
+    int getWireSize() throws IOException;
     void toWire(DhtOutputStream outputStream) throws IOException;
     void fromWire(DhtInputStream inputStream) throws IOException;
 }
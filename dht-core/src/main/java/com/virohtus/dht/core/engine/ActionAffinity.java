@@ -0,0 +1,51 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.engine.action.peer.PeerWritabilityChanged;
+import com.virohtus.dht.core.network.peer.Peer;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+
+public class ActionAffinity {
+
+    public static final int RING_KEY = 0;
+
+    private ActionAffinity() {}
+
+    // everything the stores handle reads or changes ring state, so it all shares one key and keeps both ring order
+    // and each peer's order, including its PeerConnected and PeerDisconnected. only actions no store orders against
+    // the ring spread by peer or type: writability changes and transportable types the node does not handle itself
+    public static int keyOf(Action action) {
+        if(action instanceof PeerWritabilityChanged) {
+            return keyOf(((PeerWritabilityChanged) action).getPeer());
+        }
+        if(action instanceof TransportableAction) {
+            TransportableAction transportableAction = (TransportableAction) action;
+            if(isRingType(transportableAction.getType())) {
+                return RING_KEY;
+            }
+            if(transportableAction.hasSourcePeer()) {
+                return keyOf(transportableAction.getSourcePeer());
+            }
+            return transportableAction.getType();
+        }
+        return RING_KEY;
+    }
+
+    private static boolean isRingType(int type) {
+        switch (type) {
+            case DhtProtocol.JOIN_NETWORK_REQUEST:
+            case DhtProtocol.GET_NODE_IDENTITY_REQUEST:
+            case DhtProtocol.GET_NETWORK:
+            case DhtProtocol.GET_NODE_REQUEST:
+            case DhtProtocol.SET_PREDECESSOR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int keyOf(Peer peer) {
+        return peer.getId().hashCode();
+    }
+}
@@ -0,0 +1,37 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.engine.action.peer.PeerConnected;
+import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+
+// declared from most to least important
+public enum ActionPriority {
+    CONTROL,
+    NORMAL,
+    BULK;
+
+    // local events and ring maintenance keep the node alive, bulk stream traffic can wait. a peer's connect and
+    // disconnect stay in line with its traffic instead of overtaking it
+    public static ActionPriority of(Action action) {
+        if(action instanceof PeerConnected || action instanceof PeerDisconnected) {
+            return NORMAL;
+        }
+        if(!(action instanceof TransportableAction)) {
+            return CONTROL;
+        }
+        TransportableAction transportableAction = (TransportableAction) action;
+        switch (transportableAction.getType()) {
+            case DhtProtocol.JOIN_NETWORK_REQUEST:
+            case DhtProtocol.SET_PREDECESSOR:
+            case DhtProtocol.GET_NODE_IDENTITY_REQUEST:
+            case DhtProtocol.GET_NODE_IDENTITY_RESPONSE:
+                return CONTROL;
+        }
+        if(transportableAction.getStreamId() == DhtProtocol.BULK_STREAM) {
+            return BULK;
+        }
+        return NORMAL;
+    }
+}
@@ -0,0 +1,301 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.RequestAction;
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.engine.action.network.OverloadedResponse;
+import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.network.peer.Peer;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// bounded queue in front of a dispatcher worker with one fifo lane per ActionPriority. more important lanes are
+// served first. local actions are always admitted and remote CONTROL actions get controlReserve extra slots so the
+// ring can recover, everything that arrives from a peer is bounded. put never waits, under BLOCK the queue reports
+// itself saturated and the connections feeding it pause their reads until it has room again
+public class DispatchQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DispatchQueue.class);
+    private final int capacity;
+    private final int controlReserve;
+    private final OverloadPolicy overloadPolicy;
+    private final int starvationLimit;
+    private final List<Deque<Action>> lanes;
+    private final int[] passedOver;
+    private int size;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final List<Runnable> unsaturatedCallbacks;
+    private final AtomicLong droppedCount;
+    private final AtomicLong rejectedCount;
+
+    public DispatchQueue(int capacity, OverloadPolicy overloadPolicy) {
+        this(capacity, overloadPolicy, DhtProtocol.DISPATCH_STARVATION_LIMIT);
+    }
+
+    public DispatchQueue(int capacity, OverloadPolicy overloadPolicy, int starvationLimit) {
+        this(capacity, DhtProtocol.DISPATCH_CONTROL_RESERVE, overloadPolicy, starvationLimit);
+    }
+
+    public DispatchQueue(int capacity, int controlReserve, OverloadPolicy overloadPolicy, int starvationLimit) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("dispatch queue needs room for at least one action! requested: " + capacity);
+        }
+        if(controlReserve < 0) {
+            throw new IllegalArgumentException("control reserve must not be negative! requested: " + controlReserve);
+        }
+        if(starvationLimit < 1) {
+            throw new IllegalArgumentException("starvation limit must be positive! requested: " + starvationLimit);
+        }
+        this.capacity = capacity;
+        this.controlReserve = controlReserve;
+        this.overloadPolicy = overloadPolicy;
+        this.starvationLimit = starvationLimit;
+        this.lanes = new ArrayList<>();
+        for(int i = 0; i < ActionPriority.values().length; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+        this.passedOver = new int[lanes.size()];
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.unsaturatedCallbacks = new ArrayList<>();
+        this.droppedCount = new AtomicLong(0);
+        this.rejectedCount = new AtomicLong(0);
+    }
+
+    // returns false when the overload policy shed the action
+    public boolean put(Action action) throws InterruptedException {
+        ActionPriority priority = ActionPriority.of(action);
+        boolean admitted;
+        lock.lockInterruptibly();
+        try {
+            int limit = limitOf(action, priority);
+            admitted = size < limit || admitOverloaded(action, priority, limit);
+            if(admitted) {
+                lanes.get(priority.ordinal()).addLast(action);
+                size++;
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // answered outside the lock so socket work never stalls take()
+        if(!admitted && overloadPolicy == OverloadPolicy.REJECT) {
+            reject(action);
+        }
+        return admitted;
+    }
+
+    public Action take() throws InterruptedException {
+        Action action;
+        List<Runnable> callbacks = null;
+        lock.lockInterruptibly();
+        try {
+            while(true) {
+                while(size == 0) {
+                    notEmpty.await();
+                }
+                action = lanes.get(nextLane()).removeFirst();
+                if(!(action instanceof PeerDisconnected) || !hasQueuedFrom(((PeerDisconnected) action).getPeer())) {
+                    break;
+                }
+                // a lower lane may still hold the peer's traffic, the disconnect waits behind all of it
+                lanes.get(lanes.size() - 1).addLast(action);
+            }
+            size--;
+            if(!unsaturatedCallbacks.isEmpty() && !isSaturatedLocked()) {
+                callbacks = new ArrayList<>(unsaturatedCallbacks);
+                unsaturatedCallbacks.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // run outside the lock, they resume reads on connections
+        if(callbacks != null) {
+            for (Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+        return action;
+    }
+
+    public boolean isSaturated() {
+        lock.lock();
+        try {
+            return isSaturatedLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // runs the callback once the queue is no longer saturated, right away if it is not
+    public void whenUnsaturated(Runnable callback) {
+        lock.lock();
+        try {
+            if(isSaturatedLocked()) {
+                unsaturatedCallbacks.add(callback);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        callback.run();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size(ActionPriority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority.ordinal()).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getControlReserve() {
+        return controlReserve;
+    }
+
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    public int getStarvationLimit() {
+        return starvationLimit;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // local actions come from this node and are bounded by its own activity, remote ones are not
+    private int limitOf(Action action, ActionPriority priority) {
+        if(!(action instanceof TransportableAction)) {
+            return Integer.MAX_VALUE;
+        }
+        if(priority == ActionPriority.CONTROL) {
+            return capacity + controlReserve;
+        }
+        return capacity;
+    }
+
+    // called with the lock held while the queue is at the action's limit
+    private boolean admitOverloaded(Action action, ActionPriority priority, int limit) {
+        if(overloadPolicy == OverloadPolicy.DROP_LOWEST_PRIORITY && evictBelow(priority)) {
+            return true;
+        }
+        switch (overloadPolicy) {
+            case BLOCK:
+                // admitted past the limit, the producing connection is paused by whoever checks isSaturated
+                return true;
+            case REJECT:
+                return false;
+            default:
+                drop(action);
+                return false;
+        }
+    }
+
+    private boolean isSaturatedLocked() {
+        return overloadPolicy == OverloadPolicy.BLOCK && size >= capacity;
+    }
+
+    // called with the lock held on a non empty queue. a waiting lane passed over starvationLimit times in a row
+    // gets the next turn, so lower lanes keep moving at a guaranteed share while the lanes above stay busy
+    private int nextLane() {
+        int next = -1;
+        for(int lane = 0; lane < lanes.size(); lane++) {
+            if(lanes.get(lane).isEmpty()) {
+                passedOver[lane] = 0;
+            } else if(next == -1) {
+                next = lane;
+            } else if(passedOver[lane] >= starvationLimit && passedOver[next] < starvationLimit) {
+                next = lane;
+            } else {
+                passedOver[lane]++;
+            }
+        }
+        passedOver[next] = 0;
+        return next;
+    }
+
+    private boolean hasQueuedFrom(Peer peer) {
+        for (Deque<Action> lane : lanes) {
+            for (Action action : lane) {
+                if(action instanceof TransportableAction && ((TransportableAction) action).hasSourcePeer()
+                        && ((TransportableAction) action).getSourcePeer() == peer) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // the newest remote action of the least important priority goes first, it has waited the least. local actions
+    // such as a peer's disconnect share the lower lanes but are never evicted
+    private boolean evictBelow(ActionPriority priority) {
+        for(int lowest = lanes.size() - 1; lowest > priority.ordinal(); lowest--) {
+            Iterator<Action> queued = lanes.get(lowest).descendingIterator();
+            while(queued.hasNext()) {
+                Action action = queued.next();
+                if(action instanceof TransportableAction) {
+                    queued.remove();
+                    size--;
+                    drop(action);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void drop(Action action) {
+        droppedCount.incrementAndGet();
+        LOG.debug("dispatch queue full, dropped: " + action.getClass().getName());
+    }
+
+    private void reject(Action action) {
+        if(!(action instanceof RequestAction) || !((RequestAction) action).hasSourcePeer()) {
+            drop(action);
+            return;
+        }
+        RequestAction requestAction = (RequestAction) action;
+        rejectedCount.incrementAndGet();
+        try {
+            requestAction.getSourcePeer().send(new OverloadedResponse(requestAction.getRequestId()));
+        } catch (IOException e) {
+            LOG.warn("failed to reject request from " + requestAction.getSourcePeer() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.engine.store.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// immutable once built, dispatchers swap in a new table when stores change
+public class DispatchTable {
+
+    public static final DispatchTable EMPTY = new DispatchTable(Collections.emptyList());
+    private final List<Store> stores;
+    private final List<Subscription> subscriptions;
+    private final Map<RouteKey, Store[]> routes;
+
+    private DispatchTable(List<Store> stores) {
+        this.stores = Collections.unmodifiableList(stores);
+        this.subscriptions = new ArrayList<>(stores.size());
+        for (Store store : stores) {
+            Subscription subscription = store.getSubscription();
+            subscriptions.add(subscription != null ? subscription : Subscription.ALL);
+        }
+        this.routes = new ConcurrentHashMap<>();
+    }
+
+    public DispatchTable withStore(Store store) {
+        List<Store> updated = new ArrayList<>(stores);
+        updated.add(store);
+        return new DispatchTable(updated);
+    }
+
+    public DispatchTable withoutStore(Store store) {
+        List<Store> updated = new ArrayList<>(stores);
+        updated.remove(store);
+        return new DispatchTable(updated);
+    }
+
+    public List<Store> getStores() {
+        return stores;
+    }
+
+    // resolved once per action class and type, later lookups are a single map hit
+    public Store[] storesFor(Action action) {
+        RouteKey routeKey = new RouteKey(action);
+        Store[] route = routes.get(routeKey);
+        if(route == null) {
+            route = resolve(action);
+            routes.put(routeKey, route);
+        }
+        return route;
+    }
+
+    private Store[] resolve(Action action) {
+        List<Store> matching = new ArrayList<>();
+        for(int i = 0; i < stores.size(); i++) {
+            if(subscriptions.get(i).matches(action)) {
+                matching.add(stores.get(i));
+            }
+        }
+        return matching.toArray(new Store[matching.size()]);
+    }
+
+    private static class RouteKey {
+        private final Class<?> actionClass;
+        private final int type;
+
+        private RouteKey(Action action) {
+            this.actionClass = action.getClass();
+            this.type = action instanceof TransportableAction ? ((TransportableAction) action).getType() : -1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            RouteKey routeKey = (RouteKey) o;
+
+            return type == routeKey.type && actionClass.equals(routeKey.actionClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * actionClass.hashCode() + type;
+        }
+    }
+}
@@ -13,4 +13,13 @@ public interface Dispatcher {
     void registerStore(Store store);
     void unregisterStore(Store store);
     List<Store> listStores();
+
+    // connections stop reading while the dispatcher is saturated, the callback resumes them once it has room
+    default boolean isSaturated() {
+        return false;
+    }
+
+    default void whenUnsaturated(Runnable callback) {
+        callback.run();
+    }
 }
@@ -0,0 +1,11 @@
+package com.virohtus.dht.core.engine;
+
+// what a full dispatch queue does with an action that arrived from a peer
+public enum OverloadPolicy {
+    // admit the action and pause reads on the connection that produced it until there is space
+    BLOCK,
+    // evict a queued action of lower priority, or drop the new one if there is none
+    DROP_LOWEST_PRIORITY,
+    // answer requests with an OverloadedResponse and drop everything else
+    REJECT
+}
@@ -0,0 +1,234 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
+
+public class PartitionedDispatcher implements Dispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionedDispatcher.class);
+    private final ExecutorService executorService;
+    private final ToIntFunction<Action> affinity;
+    private final Object storeLock;
+    private volatile DispatchTable dispatchTable;
+    private final Partition[] partitions;
+    private final AtomicBoolean shutdownRequested;
+
+    public PartitionedDispatcher(ExecutorService executorService) {
+        this(executorService, getDefaultPartitionCount(), ActionAffinity::keyOf);
+    }
+
+    public PartitionedDispatcher(ExecutorService executorService, int partitionCount, ToIntFunction<Action> affinity) {
+        this(executorService, partitionCount, affinity, DhtProtocol.DISPATCH_QUEUE_CAPACITY, OverloadPolicy.REJECT);
+    }
+
+    // capacity and overload policy apply to each partition on its own
+    public PartitionedDispatcher(ExecutorService executorService, int partitionCount, ToIntFunction<Action> affinity,
+                                 int capacity, OverloadPolicy overloadPolicy) {
+        if(partitionCount < 1) {
+            throw new IllegalArgumentException("dispatcher needs at least one partition! requested: " + partitionCount);
+        }
+        this.executorService = executorService;
+        this.affinity = affinity;
+        this.storeLock = new Object();
+        this.dispatchTable = DispatchTable.EMPTY;
+        this.partitions = new Partition[partitionCount];
+        for(int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, new DispatchQueue(capacity, overloadPolicy));
+        }
+        this.shutdownRequested = new AtomicBoolean(false);
+    }
+
+    public static int getDefaultPartitionCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    // actions with the same affinity key always land on the same worker, so they keep their order
+    @Override
+    public void dispatch(Action action) {
+        if(shutdownRequested.get()) {
+            return;
+        }
+        try {
+            partitions[partitionOf(affinity.applyAsInt(action))].actionQueue.put(action);
+        } catch (InterruptedException e) {
+            LOG.warn("interrupted when adding action to dispatch queue!");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void start() {
+        if(isAlive()) {
+            return;
+        }
+        shutdownRequested.set(false);
+        for (Partition partition : partitions) {
+            partition.start();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if(!isAlive()) {
+            return;
+        }
+        shutdownRequested.set(true);
+        for (Partition partition : partitions) {
+            partition.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isAlive() {
+        for (Partition partition : partitions) {
+            if(partition.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void registerStore(Store store) {
+        synchronized (storeLock) {
+            dispatchTable = dispatchTable.withStore(store);
+        }
+    }
+
+    @Override
+    public void unregisterStore(Store store) {
+        synchronized (storeLock) {
+            dispatchTable = dispatchTable.withoutStore(store);
+        }
+    }
+
+    @Override
+    public List<Store> listStores() {
+        return dispatchTable.getStores();
+    }
+
+    @Override
+    public boolean isSaturated() {
+        for (Partition partition : partitions) {
+            if(partition.actionQueue.isSaturated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // waits on one saturated partition at a time until none is left
+    @Override
+    public void whenUnsaturated(Runnable callback) {
+        for (Partition partition : partitions) {
+            if(partition.actionQueue.isSaturated()) {
+                partition.actionQueue.whenUnsaturated(() -> whenUnsaturated(callback));
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Partition partition : partitions) {
+            queued += partition.actionQueue.size();
+        }
+        return queued;
+    }
+
+    public long getDroppedCount() {
+        long dropped = 0;
+        for (Partition partition : partitions) {
+            dropped += partition.actionQueue.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    public long getRejectedCount() {
+        long rejected = 0;
+        for (Partition partition : partitions) {
+            rejected += partition.actionQueue.getRejectedCount();
+        }
+        return rejected;
+    }
+
+    int partitionOf(int key) {
+        int hash = key * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+    private void handle(Action action) {
+        for (Store store : dispatchTable.storesFor(action)) {
+            try {
+                store.onAction(action);
+            } catch (RuntimeException e) {
+                LOG.error("store " + store.getClass().getSimpleName() + " failed on " + action.getClass().getName(), e);
+            }
+        }
+    }
+
+    private class Partition {
+
+        private final int index;
+        private final DispatchQueue actionQueue;
+        private final Object workerLock;
+        private Future worker;
+
+        private Partition(int index, DispatchQueue actionQueue) {
+            this.index = index;
+            this.actionQueue = actionQueue;
+            this.workerLock = new Object();
+        }
+
+        private void start() {
+            synchronized (workerLock) {
+                worker = executorService.submit(this::run);
+            }
+        }
+
+        private void shutdown() {
+            synchronized (workerLock) {
+                if(worker != null && actionQueue.isEmpty()) {
+                    worker.cancel(true);
+                }
+            }
+        }
+
+        private boolean isAlive() {
+            synchronized (workerLock) {
+                return worker != null && !worker.isCancelled() && !worker.isDone();
+            }
+        }
+
+        private void run() {
+            LOG.info("dispatcher partition " + index + " started");
+            while(!Thread.currentThread().isInterrupted()) {
+                if(shutdownRequested.get() && actionQueue.isEmpty()) {
+                    break;
+                }
+                try {
+                    Action action = actionQueue.take();
+                    LOG.debug("dispatching on partition " + index + ": " + action.getClass().getName());
+                    handle(action);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            LOG.info("dispatcher partition " + index + " stopped");
+        }
+    }
+}
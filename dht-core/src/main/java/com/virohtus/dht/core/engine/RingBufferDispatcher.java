@@ -0,0 +1,238 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// producers claim sequences and publish into preallocated slots, a single worker drains every published slot per pass
+public class RingBufferDispatcher implements Dispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RingBufferDispatcher.class);
+    private final ExecutorService executorService;
+    private final WaitStrategy waitStrategy;
+    private final Action[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed;
+    private final AtomicLong consumed;
+    private final AtomicBoolean shutdownRequested;
+    private final Object storeLock;
+    private final Object workerLock;
+    private volatile DispatchTable dispatchTable;
+    private volatile Thread consumerThread;
+    private volatile boolean consumerIdle;
+    // only touched by the worker
+    private final Deque<Action> overflow;
+    private long lastOwnSequence;
+    private Future worker;
+
+    public RingBufferDispatcher(ExecutorService executorService) {
+        this(executorService, DhtProtocol.DISPATCH_BUFFER_SIZE, WaitStrategy.PARK);
+    }
+
+    public RingBufferDispatcher(ExecutorService executorService, int capacity, WaitStrategy waitStrategy) {
+        if(capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two! requested: " + capacity);
+        }
+        this.executorService = executorService;
+        this.waitStrategy = waitStrategy;
+        this.slots = new Action[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for(int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.claimed = new AtomicLong(0);
+        this.consumed = new AtomicLong(0);
+        this.shutdownRequested = new AtomicBoolean(false);
+        this.storeLock = new Object();
+        this.workerLock = new Object();
+        this.dispatchTable = DispatchTable.EMPTY;
+        this.overflow = new ArrayDeque<>();
+        this.lastOwnSequence = -1;
+    }
+
+    // waits for the worker to free a slot when the ring is full. producers always back off here, spinning
+    // them would starve the worker they wait on. a claimed sequence must always be published or the worker
+    // stalls on it, so once shutdown is requested the sequence is published as a tombstone the worker skips.
+    // a worker that already stopped never frees the slot and the action is dropped
+    @Override
+    public void dispatch(Action action) {
+        if(shutdownRequested.get()) {
+            return;
+        }
+        if(Thread.currentThread() == consumerThread) {
+            dispatchFromWorker(action);
+            return;
+        }
+        long sequence = claimed.getAndIncrement();
+        while(sequence - consumed.get() >= slots.length) {
+            if(isWorkerStopped()) {
+                LOG.warn("dispatcher stopped while the ring was full, dropping " + action.getClass().getName());
+                return;
+            }
+            LockSupport.parkNanos(1);
+        }
+        publish(sequence, shutdownRequested.get() ? null : action);
+    }
+
+    @Override
+    public void start() {
+        if(isAlive()) {
+            return;
+        }
+        shutdownRequested.set(false);
+        synchronized (workerLock) {
+            worker = executorService.submit(this::run);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if(!isAlive()) {
+            return;
+        }
+        shutdownRequested.set(true);
+        synchronized (workerLock) {
+            if(getQueuedCount() == 0) {
+                worker.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public boolean isAlive() {
+        synchronized (workerLock) {
+            return worker != null && !worker.isCancelled() && !worker.isDone();
+        }
+    }
+
+    @Override
+    public void registerStore(Store store) {
+        synchronized (storeLock) {
+            dispatchTable = dispatchTable.withStore(store);
+        }
+    }
+
+    @Override
+    public void unregisterStore(Store store) {
+        synchronized (storeLock) {
+            dispatchTable = dispatchTable.withoutStore(store);
+        }
+    }
+
+    @Override
+    public List<Store> listStores() {
+        return dispatchTable.getStores();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public int getQueuedCount() {
+        return (int) Math.max(0, claimed.get() - consumed.get());
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    // a store dispatching on the worker would wait for itself on a full ring, so it never claims a sequence it
+    // cannot publish right away. once something overflowed, its later actions queue behind it to keep their order
+    private void dispatchFromWorker(Action action) {
+        if(overflow.isEmpty()) {
+            long sequence = claimed.get();
+            while(sequence - consumed.get() < slots.length) {
+                if(claimed.compareAndSet(sequence, sequence + 1)) {
+                    lastOwnSequence = sequence;
+                    publish(sequence, action);
+                    return;
+                }
+                sequence = claimed.get();
+            }
+        }
+        overflow.addLast(action);
+    }
+
+    private void publish(long sequence, Action action) {
+        int index = index(sequence);
+        slots[index] = action;
+        published.lazySet(index, sequence);
+        if(consumerIdle) {
+            LockSupport.unpark(consumerThread);
+        }
+    }
+
+    // a dispatcher that was never started is not stopped, producers wait for start like they wait for the worker
+    private boolean isWorkerStopped() {
+        synchronized (workerLock) {
+            return worker != null && (worker.isCancelled() || worker.isDone());
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private void run() {
+        LOG.info("ring buffer dispatcher started");
+        consumerThread = Thread.currentThread();
+        long next = consumed.get();
+        while(!Thread.currentThread().isInterrupted()) {
+            // overflowed actions run once everything the worker published before them was handled
+            if(!overflow.isEmpty() && next > lastOwnSequence) {
+                handle(overflow.pollFirst());
+                continue;
+            }
+            long available = next;
+            while(published.get(index(available)) == available) {
+                available++;
+            }
+            if(available == next) {
+                if(shutdownRequested.get() && claimed.get() == next && overflow.isEmpty()) {
+                    break;
+                }
+                consumerIdle = true;
+                if(published.get(index(next)) != next) {
+                    waitStrategy.idle();
+                }
+                consumerIdle = false;
+                continue;
+            }
+            for(; next < available; next++) {
+                int index = index(next);
+                Action action = slots[index];
+                slots[index] = null;
+                if(action != null) {
+                    handle(action);
+                }
+            }
+            consumed.lazySet(next);
+        }
+        consumerThread = null;
+        LOG.info("ring buffer dispatcher stopped");
+    }
+
+    private void handle(Action action) {
+        for (Store store : dispatchTable.storesFor(action)) {
+            try {
+                store.onAction(action);
+            } catch (RuntimeException e) {
+                LOG.error("store " + store.getClass().getSimpleName() + " failed on " + action.getClass().getName(), e);
+            }
+        }
+    }
+}
@@ -2,41 +2,45 @@ package com.virohtus.dht.core.engine;
 
 import com.virohtus.dht.core.action.Action;
 import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SingleThreadedDispatcher implements Dispatcher {
 
     private static final Logger LOG = LoggerFactory.getLogger(SingleThreadedDispatcher.class);
     private final ExecutorService executorService;
-    private final List<Store> stores;
-    private final BlockingQueue<Action> actionQueue;
+    private final Object storeLock;
+    private volatile DispatchTable dispatchTable;
+    private final DispatchQueue actionQueue;
     private final AtomicBoolean shutdownRequested;
     private Future worker;
 
     public SingleThreadedDispatcher(ExecutorService executorService) {
+        this(executorService, DhtProtocol.DISPATCH_QUEUE_CAPACITY, OverloadPolicy.REJECT);
+    }
+
+    public SingleThreadedDispatcher(ExecutorService executorService, int capacity, OverloadPolicy overloadPolicy) {
         this.executorService = executorService;
-        stores = new ArrayList<>();
-        actionQueue = new LinkedBlockingQueue<>();
+        storeLock = new Object();
+        dispatchTable = DispatchTable.EMPTY;
+        actionQueue = new DispatchQueue(capacity, overloadPolicy);
         shutdownRequested = new AtomicBoolean(false);
     }
 
+    // not done under the shutdown lock, a blocked producer would otherwise stall the worker
     @Override
     public void dispatch(Action action) {
+        if(shutdownRequested.get()) {
+            return;
+        }
         try {
-            synchronized (shutdownRequested) {
-                if(!shutdownRequested.get()) {
-                    actionQueue.put(action);
-                }
-            }
+            actionQueue.put(action);
         } catch (InterruptedException e) {
             LOG.warn("interrupted when adding action to dispatch queue!");
             Thread.currentThread().interrupt();
@@ -51,25 +55,7 @@ public class SingleThreadedDispatcher implements Dispatcher {
         synchronized (shutdownRequested) {
             shutdownRequested.set(false);
         }
-        worker = executorService.submit(() -> {
-            LOG.info("dispatcher started");
-            while(!Thread.currentThread().isInterrupted()) {
-                synchronized (shutdownRequested) {
-                    if(shutdownRequested.get() && actionQueue.isEmpty()) {
-                        break;
-                    }
-                }
-                try {
-                    Action action = actionQueue.take();
-                    LOG.info("dispatching: " + action.getClass().getName());
-                    listStores().forEach(store -> store.onAction(action));
-                } catch (InterruptedException e) {
-                    LOG.warn("interrupted when taking action from dispatch queue!");
-                    Thread.currentThread().interrupt();
-                }
-            }
-            LOG.info("dispatcher stopped");
-        });
+        worker = executorService.submit(this::run);
     }
 
     @Override
@@ -92,22 +78,60 @@ public class SingleThreadedDispatcher implements Dispatcher {
 
     @Override
     public void registerStore(Store store) {
-        synchronized (stores) {
-            stores.add(store);
+        synchronized (storeLock) {
+            dispatchTable = dispatchTable.withStore(store);
         }
     }
 
     @Override
     public void unregisterStore(Store store) {
-        synchronized (stores) {
-            stores.remove(store);
+        synchronized (storeLock) {
+            dispatchTable = dispatchTable.withoutStore(store);
         }
     }
 
     @Override
     public List<Store> listStores() {
-        synchronized (stores) {
-            return new ArrayList<>(stores);
+        return dispatchTable.getStores();
+    }
+
+    @Override
+    public boolean isSaturated() {
+        return actionQueue.isSaturated();
+    }
+
+    @Override
+    public void whenUnsaturated(Runnable callback) {
+        actionQueue.whenUnsaturated(callback);
+    }
+
+    public DispatchQueue getActionQueue() {
+        return actionQueue;
+    }
+
+    private void run() {
+        LOG.info("dispatcher started");
+        while(!Thread.currentThread().isInterrupted()) {
+            synchronized (shutdownRequested) {
+                if(shutdownRequested.get() && actionQueue.isEmpty()) {
+                    break;
+                }
+            }
+            try {
+                Action action = actionQueue.take();
+                LOG.info("dispatching: " + action.getClass().getName());
+                for (Store store : dispatchTable.storesFor(action)) {
+                    try {
+                        store.onAction(action);
+                    } catch (RuntimeException e) {
+                        LOG.error("store " + store.getClass().getSimpleName() + " failed on " + action.getClass().getName(), e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("interrupted when taking action from dispatch queue!");
+                Thread.currentThread().interrupt();
+            }
         }
+        LOG.info("dispatcher stopped");
     }
 }
@@ -0,0 +1,26 @@
+package com.virohtus.dht.core.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// how an idle dispatcher thread waits for work, trading cpu for wake up latency
+public enum WaitStrategy {
+    SPIN,
+    YIELD,
+    PARK;
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    public void idle() {
+        switch (this) {
+            case SPIN:
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+                LockSupport.parkNanos(PARK_NANOS);
+                break;
+        }
+    }
+}
@@ -3,28 +3,82 @@ package com.virohtus.dht.core.engine.action.network;
 import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.network.Network;
 import com.virohtus.dht.core.network.Node;
+import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.transport.io.ByteBufferOutputStream;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.Deadline;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
+// nodes stay encoded while the walk travels the ring, only the originator decodes them
 public class GetNetwork extends TransportableAction {
 
-    private Network network;
+    private Deadline deadline;
+    private int nodeCount;
+    private byte[] encodedNodes;
 
-    public GetNetwork(Network network) {
-        this.network = network;
+    public GetNetwork(Network network) throws IOException {
+        this(network, Deadline.NONE);
     }
 
-    public GetNetwork(DhtEvent dhtEvent) throws IOException {
-        super(dhtEvent);
+    public GetNetwork(Network network, Deadline deadline) throws IOException {
+        this(deadline, 0, new byte[0]);
+        for (Node node : network.getNodes()) {
+            encodedNodes = append(encodedNodes, node);
+            nodeCount++;
+        }
     }
 
-    public Network getNetwork() {
-        return network;
+    private GetNetwork(Deadline deadline, int nodeCount, byte[] encodedNodes) {
+        this.deadline = deadline;
+        this.nodeCount = nodeCount;
+        this.encodedNodes = encodedNodes;
+    }
+
+    public GetNetwork(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
+    }
+
+    public Network getNetwork() throws IOException {
+        List<Node> nodes = new ArrayList<>();
+        try (DhtInputStream inputStream = new DhtInputStream(new ByteArrayInputStream(encodedNodes))) {
+            for(int i = 0; i < nodeCount; i++) {
+                nodes.add(new Node(inputStream));
+            }
+        }
+        return new Network(nodes);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // only the leading identity is read, enough to tell whether the walk is back at its originator
+    public NodeIdentity getOrigin() throws IOException {
+        if(nodeCount == 0) {
+            return null;
+        }
+        try (DhtInputStream inputStream = new DhtInputStream(new ByteArrayInputStream(encodedNodes))) {
+            return new NodeIdentity(inputStream);
+        }
+    }
+
+    public GetNetwork withNode(Node node) throws IOException {
+        return new GetNetwork(deadline, nodeCount + 1, append(encodedNodes, node));
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public boolean isExpired() {
+        return deadline.isExpired();
     }
 
     @Override
@@ -32,15 +86,44 @@ public class GetNetwork extends TransportableAction {
         return DhtProtocol.GET_NETWORK;
     }
 
+    @Override
+    public int getStreamId() {
+        return DhtProtocol.BULK_STREAM;
+    }
+
+    @Override
+    public int getWireSize() throws IOException {
+        return super.getWireSize() + deadline.getWireSize() + Integer.BYTES + Integer.BYTES + encodedNodes.length;
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         super.toWire(outputStream);
-        network.toWire(outputStream);
+        deadline.toWire(outputStream);
+        outputStream.writeInt(nodeCount);
+        outputStream.writeSizedData(encodedNodes);
     }
 
     @Override
     public void fromWire(DhtInputStream inputStream) throws IOException {
         super.fromWire(inputStream);
-        network = new Network(inputStream);
+        deadline = new Deadline(inputStream);
+        nodeCount = inputStream.readInt();
+        int encodedLength = inputStream.readInt();
+        // every encoded node takes at least one byte, so the count can never exceed the length
+        if(nodeCount < 0 || encodedLength < 0 || encodedLength > DhtProtocol.MAX_MESSAGE_SIZE || nodeCount > encodedLength) {
+            throw new IOException("invalid GetNetwork payload! nodes: " + nodeCount + " bytes: " + encodedLength);
+        }
+        encodedNodes = new byte[encodedLength];
+        inputStream.readFully(encodedNodes);
+    }
+
+    private static byte[] append(byte[] encodedNodes, Node node) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedNodes.length + node.getWireSize());
+        buffer.put(encodedNodes);
+        try (DhtOutputStream outputStream = new DhtOutputStream(new ByteBufferOutputStream(buffer))) {
+            node.toWire(outputStream);
+        }
+        return buffer.array();
     }
 }
@@ -2,8 +2,8 @@ package com.virohtus.dht.core.engine.action.network;
 
 import com.virohtus.dht.core.action.RequestAction;
 import com.virohtus.dht.core.action.TransportableAction;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.transport.io.DhtInputStream;
 
 import java.io.IOException;
 
@@ -12,8 +12,8 @@ public class GetNodeIdentityRequest extends RequestAction {
     public GetNodeIdentityRequest() {
     }
 
-    public GetNodeIdentityRequest(DhtEvent dhtEvent) throws IOException {
-        super(dhtEvent);
+    public GetNodeIdentityRequest(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
     }
 
     @Override
@@ -5,7 +5,6 @@ import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.network.NodeIdentity;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 
 import java.io.IOException;
@@ -14,13 +13,13 @@ public class GetNodeIdentityResponse extends ResponseAction {
 
     private NodeIdentity nodeIdentity;
 
-    public GetNodeIdentityResponse(String requestId, NodeIdentity nodeIdentity) {
+    public GetNodeIdentityResponse(long requestId, NodeIdentity nodeIdentity) {
         super(requestId);
         this.nodeIdentity = nodeIdentity;
     }
 
-    public GetNodeIdentityResponse(DhtEvent dhtEvent) throws IOException {
-        super(dhtEvent);
+    public GetNodeIdentityResponse(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
     }
 
     public NodeIdentity getNodeIdentity() {
@@ -32,6 +31,11 @@ public class GetNodeIdentityResponse extends ResponseAction {
         return DhtProtocol.GET_NODE_IDENTITY_RESPONSE;
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        return super.getWireSize() + nodeIdentity.getWireSize();
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         super.toWire(outputStream);
@@ -1,8 +1,8 @@
 package com.virohtus.dht.core.engine.action.network;
 
 import com.virohtus.dht.core.action.RequestAction;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.transport.io.DhtInputStream;
 
 import java.io.IOException;
 
@@ -11,8 +11,8 @@ public class GetNodeRequest extends RequestAction {
     public GetNodeRequest() {
     }
 
-    public GetNodeRequest(DhtEvent event) throws IOException {
-        super(event);
+    public GetNodeRequest(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
     }
 
     @Override
@@ -4,7 +4,6 @@ import com.virohtus.dht.core.action.ResponseAction;
 import com.virohtus.dht.core.network.Node;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 
 import java.io.IOException;
@@ -13,13 +12,13 @@ public class GetNodeResponse extends ResponseAction {
 
     private Node node;
 
-    public GetNodeResponse(String requestId, Node node) {
+    public GetNodeResponse(long requestId, Node node) {
         super(requestId);
         this.node = node;
     }
 
-    public GetNodeResponse(DhtEvent dhtEvent) throws IOException {
-        super(dhtEvent);
+    public GetNodeResponse(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
     }
 
     public Node getNode() {
@@ -31,6 +30,11 @@ public class GetNodeResponse extends ResponseAction {
         return DhtProtocol.GET_NODE_RESPONSE;
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        return super.getWireSize() + node.getWireSize();
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         super.toWire(outputStream);
@@ -5,7 +5,6 @@ import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.network.Node;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 
 import java.io.IOException;
@@ -19,8 +18,8 @@ public class JoinNetworkRequest extends RequestAction {
         this.node = node;
     }
 
-    public JoinNetworkRequest(DhtEvent event) throws IOException {
-        super(event);
+    public JoinNetworkRequest(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
     }
 
     public Node getNode() {
@@ -32,6 +31,11 @@ public class JoinNetworkRequest extends RequestAction {
         return DhtProtocol.JOIN_NETWORK_REQUEST;
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        return super.getWireSize() + node.getWireSize();
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         super.toWire(outputStream);
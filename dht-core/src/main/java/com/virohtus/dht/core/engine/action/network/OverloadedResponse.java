@@ -0,0 +1,24 @@
+package com.virohtus.dht.core.engine.action.network;
+
+import com.virohtus.dht.core.action.ResponseAction;
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+
+import java.io.IOException;
+
+// answers any request the receiving node shed instead of queueing
+public class OverloadedResponse extends ResponseAction {
+
+    public OverloadedResponse(long requestId) {
+        super(requestId);
+    }
+
+    public OverloadedResponse(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
+    }
+
+    @Override
+    public int getType() {
+        return DhtProtocol.OVERLOADED_RESPONSE;
+    }
+}
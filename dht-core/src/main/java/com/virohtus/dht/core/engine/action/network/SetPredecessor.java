@@ -4,7 +4,6 @@ import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.network.Node;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 
 import java.io.IOException;
@@ -17,8 +16,8 @@ public class SetPredecessor extends TransportableAction {
         this.node = node;
     }
 
-    public SetPredecessor(DhtEvent dhtEvent) throws IOException {
-        super(dhtEvent);
+    public SetPredecessor(DhtInputStream inputStream) throws IOException {
+        super(inputStream);
     }
 
     public Node getNode() {
@@ -30,6 +29,11 @@ public class SetPredecessor extends TransportableAction {
         return DhtProtocol.SET_PREDECESSOR;
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        return super.getWireSize() + node.getWireSize();
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         super.toWire(outputStream);
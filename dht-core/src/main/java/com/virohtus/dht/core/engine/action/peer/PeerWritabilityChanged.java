@@ -0,0 +1,23 @@
+package com.virohtus.dht.core.engine.action.peer;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.network.peer.Peer;
+
+public class PeerWritabilityChanged extends Action {
+
+    private final Peer peer;
+    private final boolean writable;
+
+    public PeerWritabilityChanged(Peer peer, boolean writable) {
+        this.peer = peer;
+        this.writable = writable;
+    }
+
+    public Peer getPeer() {
+        return peer;
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+}
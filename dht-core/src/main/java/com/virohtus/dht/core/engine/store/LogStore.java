@@ -4,6 +4,7 @@ import com.virohtus.dht.core.action.Action;
 import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.engine.action.peer.PeerConnected;
 import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.engine.action.peer.PeerWritabilityChanged;
 import com.virohtus.dht.core.engine.action.server.ServerShutdown;
 import com.virohtus.dht.core.engine.action.server.ServerStarted;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
@@ -16,6 +17,14 @@ import java.net.InetSocketAddress;
 public class LogStore implements Store {
 
     private static final Logger LOG = LoggerFactory.getLogger(LogStore.class);
+    private static final Subscription SUBSCRIPTION = Subscription.of(ServerStarted.class, ServerShutdown.class,
+            PeerConnected.class, PeerDisconnected.class, PeerWritabilityChanged.class)
+            .withTypes(DhtProtocol.GET_NODE_IDENTITY_REQUEST, DhtProtocol.GET_NODE_IDENTITY_RESPONSE);
+
+    @Override
+    public Subscription getSubscription() {
+        return SUBSCRIPTION;
+    }
 
     @Override
     public void onAction(Action action) {
@@ -40,6 +49,15 @@ public class LogStore implements Store {
             LOG.info("peer disconnected " + ((PeerDisconnected)action).getPeer());
         }
 
+        if(action instanceof PeerWritabilityChanged) {
+            PeerWritabilityChanged writabilityChanged = (PeerWritabilityChanged)action;
+            if(writabilityChanged.isWritable()) {
+                LOG.info("peer writable again: " + writabilityChanged.getPeer());
+            } else {
+                LOG.warn("peer write queue above high watermark: " + writabilityChanged.getPeer());
+            }
+        }
+
         if(action instanceof TransportableAction) {
             TransportableAction transportableAction = (TransportableAction)action;
             switch (transportableAction.getType()) {
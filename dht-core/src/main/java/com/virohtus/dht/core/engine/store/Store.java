@@ -4,4 +4,9 @@ import com.virohtus.dht.core.action.Action;
 
 public interface Store {
     void onAction(Action action);
+
+    // read once when the store is registered, dispatchers only hand the store matching actions
+    default Subscription getSubscription() {
+        return Subscription.ALL;
+    }
 }
@@ -0,0 +1,58 @@
+package com.virohtus.dht.core.engine.store;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.TransportableAction;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class Subscription {
+
+    public static final Subscription ALL = new Subscription(true, Collections.emptySet(), Collections.emptySet());
+    public static final Subscription NONE = new Subscription(false, Collections.emptySet(), Collections.emptySet());
+    private final boolean all;
+    private final Set<Class<? extends Action>> actionClasses;
+    private final Set<Integer> actionTypes;
+
+    private Subscription(boolean all, Set<Class<? extends Action>> actionClasses, Set<Integer> actionTypes) {
+        this.all = all;
+        this.actionClasses = actionClasses;
+        this.actionTypes = actionTypes;
+    }
+
+    @SafeVarargs
+    public static Subscription of(Class<? extends Action>... actionClasses) {
+        Set<Class<? extends Action>> classes = new HashSet<>();
+        for (Class<? extends Action> actionClass : actionClasses) {
+            classes.add(actionClass);
+        }
+        return new Subscription(false, classes, Collections.emptySet());
+    }
+
+    public static Subscription ofTypes(int... actionTypes) {
+        return NONE.withTypes(actionTypes);
+    }
+
+    // transportable actions are matched by their wire type
+    public Subscription withTypes(int... actionTypes) {
+        Set<Integer> types = new HashSet<>(this.actionTypes);
+        for (int actionType : actionTypes) {
+            types.add(actionType);
+        }
+        return new Subscription(all, actionClasses, types);
+    }
+
+    // subclasses of a subscribed class match as well
+    public boolean matches(Action action) {
+        if(all) {
+            return true;
+        }
+        for (Class<? extends Action> actionClass : actionClasses) {
+            if(actionClass.isInstance(action)) {
+                return true;
+            }
+        }
+        return action instanceof TransportableAction && actionTypes.contains(((TransportableAction) action).getType());
+    }
+}
@@ -2,15 +2,18 @@ package com.virohtus.dht.core.engine.store.network;
 
 import com.virohtus.dht.core.DhtNodeManager;
 import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.RequestAction;
 import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.engine.action.network.*;
 import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
 import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.engine.store.Subscription;
 import com.virohtus.dht.core.engine.store.peer.PeerStore;
 import com.virohtus.dht.core.network.*;
 import com.virohtus.dht.core.network.peer.Peer;
 import com.virohtus.dht.core.network.peer.PeerNotFoundException;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.Deadline;
 import com.virohtus.dht.core.util.Resolvable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,11 +21,16 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 public class NetworkStore implements Store {
 
     private static final Logger LOG = LoggerFactory.getLogger(NetworkStore.class);
+    private static final Subscription SUBSCRIPTION = Subscription.of(PeerDisconnected.class)
+            .withTypes(DhtProtocol.GET_NODE_IDENTITY_REQUEST, DhtProtocol.JOIN_NETWORK_REQUEST,
+                    DhtProtocol.GET_NETWORK, DhtProtocol.GET_NODE_REQUEST);
     private final DhtNodeManager dhtNodeManager;
     private final NodeManager nodeManager;
     private final PeerStore peerStore;
@@ -38,12 +46,24 @@ public class NetworkStore implements Store {
     }
 
     public void join(SocketAddress socketAddress) throws IOException, TimeoutException, InterruptedException {
-        Peer peer = peerStore.createPeer(socketAddress);
+        Peer peer = peerStore.getOrCreatePeer(socketAddress);
         join(peer);
     }
 
     public void join(Peer peer) throws IOException, TimeoutException, InterruptedException {
-        JoinNetworkResponse response = peer.sendRequest(new JoinNetworkRequest(nodeManager.getCurrentNode()), JoinNetworkResponse.class).get();
+        CompletableFuture<Void> joined = peer.sendRequest(new JoinNetworkRequest(nodeManager.getCurrentNode()), JoinNetworkResponse.class)
+                .thenAccept(this::handleJoinNetworkResponse);
+        try {
+            joined.get();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+            throw new IOException("failed to join network through " + peer, e.getCause());
+        }
+    }
+
+    private void handleJoinNetworkResponse(JoinNetworkResponse response) {
         Node successor = response.getNode();
         Node successorsPredecessor = successor.getFingerTable().getPredecessor();
         Node node = nodeManager.getCurrentNode();
@@ -63,13 +83,21 @@ public class NetworkStore implements Store {
         }
         try {
             Peer successor = peerStore.getPeer(node.getFingerTable().getImmediateSuccessor());
-            successor.send(new GetNetwork(network).serialize());
+            if(!successor.isWritable()) {
+                throw new IOException("successor is not accepting writes: " + successor);
+            }
+            successor.send(new GetNetwork(network, Deadline.after(DhtProtocol.NETWORK_TIMEOUT)));
         } catch (PeerNotFoundException e) {
             throw new IOException(e);
         }
         return networkResolvable.get();
     }
 
+    @Override
+    public Subscription getSubscription() {
+        return SUBSCRIPTION;
+    }
+
     @Override
     public void onAction(Action action) {
         if(action instanceof PeerDisconnected) {
@@ -109,8 +137,8 @@ public class NetworkStore implements Store {
             // this means there are only 2 nodes left in the network -- reconnect them
             try {
                 Peer predecessorPeer = peerStore.getPeer(predecessor);
-                node.getFingerTable().setImmediateSuccessor(predecessor); // for data purposes
-                predecessorPeer.send(new SetPredecessor(node).serialize());
+                Node updated = node.withFingerTable(node.getFingerTable().withImmediateSuccessor(predecessor)); // for data purposes
+                predecessorPeer.sendBatched(new SetPredecessor(updated));
                 nodeManager.setImmediateSuccessor(predecessor);
             } catch (Exception e) {
                 LOG.error("failed to set predecessor as successor!", e);
@@ -119,22 +147,28 @@ public class NetworkStore implements Store {
     }
 
     private void handleGetNodeIdentityRequest(GetNodeIdentityRequest request) {
+        if(isExpired(request)) {
+            return;
+        }
         try {
-            request.getSourcePeer().send(new GetNodeIdentityResponse(request.getRequestId(),
-                    nodeManager.getCurrentNode().getNodeIdentity()).serialize());
+            request.getSourcePeer().sendBatched(new GetNodeIdentityResponse(request.getRequestId(),
+                    nodeManager.getCurrentNode().getNodeIdentity()));
         } catch (IOException e) {
             LOG.error("failed to send GetNodeIdentityResponse to peer: " + request.getSourcePeer().getId());
         }
     }
 
     private void handleJoinNetworkRequest(JoinNetworkRequest request) {
+        if(isExpired(request)) {
+            return;
+        }
         Node node = nodeManager.getCurrentNode();
         Keyspace[] splitKeyspace = node.getKeyspace().split();
         Node predecessor = request.getNode();
         if(predecessor.getKeyspace().isDefaultKeyspace()) {
-            predecessor.setKeyspace(splitKeyspace[0]);
+            predecessor = predecessor.withKeyspace(splitKeyspace[0]);
         } else {
-            predecessor.getKeyspace().merge(splitKeyspace[0]);
+            predecessor = predecessor.withKeyspace(predecessor.getKeyspace().merge(splitKeyspace[0]));
         }
         nodeManager.setKeyspace(splitKeyspace[1]);
         nodeManager.setPredecessor(predecessor);
@@ -142,34 +176,61 @@ public class NetworkStore implements Store {
             nodeManager.setImmediateSuccessor(predecessor);
         }
         try {
-            request.getSourcePeer().send(new JoinNetworkResponse(request.getRequestId(), nodeManager.getCurrentNode()).serialize());
+            request.getSourcePeer().sendBatched(new JoinNetworkResponse(request.getRequestId(), nodeManager.getCurrentNode()));
         } catch (IOException e) {
             LOG.error("failed to send JoinNetworkResponse");
         }
     }
 
     private void handleGetNetwork(GetNetwork getNetwork) {
-        Node node = nodeManager.getCurrentNode();
-        Network network = getNetwork.getNetwork();
-        if(network.getNodes().get(0).getNodeIdentity().equals(node.getNodeIdentity())) {
-            networkResolvable.resolve(network);
+        if(getNetwork.isExpired()) {
+            LOG.warn("dropping GetNetwork, its originator has stopped waiting");
             return;
         }
-        network.addNode(node);
+        Node node = nodeManager.getCurrentNode();
         try {
+            if(node.getNodeIdentity().equals(getNetwork.getOrigin())) {
+                networkResolvable.resolve(getNetwork.getNetwork());
+                return;
+            }
+            if(!node.getFingerTable().hasSuccessors()) {
+                LOG.warn("received GetNetwork but we have no successor to forward it to!");
+                return;
+            }
             Peer peer = peerStore.getPeer(node.getFingerTable().getImmediateSuccessor());
-            peer.send(getNetwork.serialize());
-        } catch (Exception e) {
+            if(!peer.isWritable()) {
+                LOG.warn("dropping GetNetwork, successor is backed up: " + peer);
+                return;
+            }
+            peer.send(getNetwork.withNode(node));
+        } catch (PeerNotFoundException e) {
             LOG.warn("received GetNetwork but we have nowhere to go!");
+        } catch (IOException e) {
+            LOG.warn("failed to forward GetNetwork: " + e.getMessage());
         }
     }
 
     private void handleGetNodeRequest(GetNodeRequest getNodeRequest) {
+        if(isExpired(getNodeRequest)) {
+            return;
+        }
+        if(!getNodeRequest.getSourcePeer().isWritable()) {
+            LOG.warn("dropping GetNodeRequest, peer is backed up: " + getNodeRequest.getSourcePeer());
+            return;
+        }
         try {
-            getNodeRequest.getSourcePeer().send(new GetNodeResponse(getNodeRequest.getRequestId(),
-                    nodeManager.getCurrentNode()).serialize());
+            getNodeRequest.getSourcePeer().sendBatched(new GetNodeResponse(getNodeRequest.getRequestId(),
+                    nodeManager.getCurrentNode()));
         } catch (IOException e) {
             LOG.error("failed to send GetNodeResponse to peer: " + getNodeRequest.getSourcePeer().getId(), e);
         }
     }
+
+    private boolean isExpired(RequestAction request) {
+        if(request.isExpired()) {
+            LOG.warn("dropping expired request " + request.getType() + " from peer: " + request.getSourcePeer());
+            return true;
+        }
+        return false;
+    }
 }
@@ -6,6 +6,7 @@ import com.virohtus.dht.core.engine.action.network.GetNodeRequest;
 import com.virohtus.dht.core.engine.action.network.GetNodeResponse;
 import com.virohtus.dht.core.engine.action.network.SetPredecessor;
 import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.engine.store.Subscription;
 import com.virohtus.dht.core.engine.store.peer.PeerStore;
 import com.virohtus.dht.core.network.Node;
 import com.virohtus.dht.core.network.NodeManager;
@@ -15,16 +16,20 @@ import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 public class StabilizationStore implements Store {
 
     private static final Logger LOG = LoggerFactory.getLogger(StabilizationStore.class);
+    private static final Subscription SUBSCRIPTION = Subscription.ofTypes(DhtProtocol.SET_PREDECESSOR);
     private final ExecutorService executorService;
     private final NodeManager nodeManager;
     private final PeerStore peerStore;
     private Future future;
+    private CompletableFuture<Void> round;
 
     public StabilizationStore(ExecutorService executorService, NodeManager nodeManager, PeerStore peerStore) {
         this.executorService = executorService;
@@ -59,6 +64,11 @@ public class StabilizationStore implements Store {
         return future != null && !future.isCancelled() && !future.isDone();
     }
 
+    @Override
+    public Subscription getSubscription() {
+        return SUBSCRIPTION;
+    }
+
     @Override
     public void onAction(Action action) {
         if(action instanceof TransportableAction) {
@@ -72,33 +82,56 @@ public class StabilizationStore implements Store {
     }
 
 
-    private void stabilize() {
+    // the loop thread only starts a round, the reply is handled on the executor and rounds never overlap
+    void stabilize() {
+        if(round != null && !round.isDone()) {
+            LOG.warn("previous stabilization round still running, skipping");
+            return;
+        }
         try {
             Node node = nodeManager.getCurrentNode();
             if(!node.getFingerTable().hasSuccessors()) {
                 return;
             }
             Peer successor = peerStore.getPeer(node.getFingerTable().getImmediateSuccessor());
-            Node successorNode = successor.sendRequest(new GetNodeRequest(), GetNodeResponse.class).get().getNode();
+            if(!successor.isWritable()) {
+                LOG.warn("successor is backed up, skipping stabilization round: " + successor);
+                return;
+            }
+            round = successor.sendRequest(new GetNodeRequest(), GetNodeResponse.class)
+                    .thenAcceptAsync(response -> updateSuccessor(node, successor, response.getNode()), executorService)
+                    .exceptionally(e -> {
+                        LOG.error("stabilization error", e);
+                        return null;
+                    });
+        } catch (Exception e) {
+            LOG.error("stabilization error", e);
+        }
+    }
+
+    private void updateSuccessor(Node node, Peer successor, Node successorNode) {
+        try {
             Node successorsPredecessor = successorNode.getFingerTable().getPredecessor();
             if(successorsPredecessor == null) {
-                successor.send(new SetPredecessor(node).serialize());
+                successor.sendBatched(new SetPredecessor(node));
                 return;
             }
             if(successorsPredecessor.getNodeIdentity().equals(node.getNodeIdentity())) {
                 return;
             }
-            Peer newSuccessor = peerStore.createPeer(successorsPredecessor.getNodeIdentity().getSocketAddress());
-            node.getFingerTable().setImmediateSuccessor(successorsPredecessor); //set for successor to have up to date node info
-            newSuccessor.send(new SetPredecessor(node).serialize());
-            nodeManager.setImmediateSuccessor(successorsPredecessor); // set for real, since send was successful
+            Peer newSuccessor = peerStore.getOrCreatePeer(successorsPredecessor.getNodeIdentity());
+            Node updated = node.withFingerTable(node.getFingerTable().withImmediateSuccessor(successorsPredecessor)); //set for successor to have up to date node info
+            newSuccessor.sendBatched(new SetPredecessor(updated));
+            // only queued in the batcher, not acknowledged. the swap is applied optimistically and if the new
+            // successor never gets SetPredecessor the next round reads its predecessor and repairs the link
+            nodeManager.setImmediateSuccessor(successorsPredecessor);
             nodeManager.removeSuccessor(successor.getNodeIdentity());
             if(successorNode.getFingerTable().getImmediateSuccessor().getNodeIdentity().equals(node.getNodeIdentity())) {
                 successor.setType(PeerType.INCOMING);
             } else {
                 successor.shutdown();
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             LOG.error("stabilization error", e);
         }
     }
@@ -1,42 +1,54 @@
 package com.virohtus.dht.core.engine.store.peer;
 
 import com.virohtus.dht.core.action.Action;
-import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.engine.Dispatcher;
 import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
 import com.virohtus.dht.core.engine.action.network.GetNodeIdentityResponse;
 import com.virohtus.dht.core.engine.action.peer.PeerConnected;
 import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
 import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.engine.store.Subscription;
 import com.virohtus.dht.core.network.Node;
 import com.virohtus.dht.core.network.NodeIdentity;
 import com.virohtus.dht.core.network.peer.*;
 import com.virohtus.dht.core.transport.connection.AsyncConnection;
 import com.virohtus.dht.core.transport.connection.Connection;
+import com.virohtus.dht.core.transport.connection.EventLoopGroup;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.Id;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class PeerStore implements Store {
 
     private static final Logger LOG = LoggerFactory.getLogger(PeerStore.class);
+    private static final Subscription SUBSCRIPTION = Subscription.of(PeerDisconnected.class);
     private final Dispatcher dispatcher;
     private final ExecutorService executorService;
+    private final EventLoopGroup eventLoopGroup;
     private final PeerManager peerManager;
+    private final Map<SocketAddress, CompletableFuture<Peer>> pendingConnects;
     private final AtomicBoolean readyForShutdown;
 
-    public PeerStore(Dispatcher dispatcher, ExecutorService executorService) {
+    public PeerStore(Dispatcher dispatcher, ExecutorService executorService, EventLoopGroup eventLoopGroup) {
         this.dispatcher = dispatcher;
         this.executorService = executorService;
+        this.eventLoopGroup = eventLoopGroup;
         this.peerManager = new PeerManagerImpl();
+        this.pendingConnects = new ConcurrentHashMap<>();
         readyForShutdown = new AtomicBoolean(true);
     }
 
@@ -51,7 +63,7 @@ public class PeerStore implements Store {
         return peerManager.getPeer(node.getNodeIdentity());
     }
 
-    public Peer getPeer(String peerId) throws PeerNotFoundException {
+    public Peer getPeer(Id peerId) throws PeerNotFoundException {
         return peerManager.getPeer(peerId);
     }
 
@@ -65,6 +77,10 @@ public class PeerStore implements Store {
         }
     }
 
+    public Peer getPeer(SocketAddress socketAddress) throws PeerNotFoundException {
+        return peerManager.getPeer(socketAddress);
+    }
+
     public Set<Peer> listPeers() {
         return peerManager.getAllPeers();
     }
@@ -73,25 +89,72 @@ public class PeerStore implements Store {
         return peerManager.clear();
     }
 
+    public Peer getOrCreatePeer(NodeIdentity nodeIdentity) throws IOException {
+        Peer peer = findLivePeer(nodeIdentity);
+        if(peer != null) {
+            return peer;
+        }
+        return getOrCreatePeer(nodeIdentity.getSocketAddress());
+    }
+
+    // reuses a pooled connection in either direction, concurrent callers for the same address share one connect
+    public Peer getOrCreatePeer(SocketAddress socketAddress) throws IOException {
+        Peer peer = findLivePeer(socketAddress);
+        if(peer != null) {
+            return peer;
+        }
+        CompletableFuture<Peer> connect = new CompletableFuture<>();
+        CompletableFuture<Peer> pendingConnect = pendingConnects.putIfAbsent(socketAddress, connect);
+        if(pendingConnect != null) {
+            return awaitConnect(socketAddress, pendingConnect);
+        }
+        try {
+            peer = findLivePeer(socketAddress);
+            if(peer == null) {
+                peer = createPeer(socketAddress);
+            }
+            connect.complete(peer);
+            return peer;
+        } catch (IOException | RuntimeException e) {
+            connect.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingConnects.remove(socketAddress, connect);
+        }
+    }
+
     public Peer createPeer(SocketAddress socketAddress) throws IOException {
-        AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open();
-        socketChannel.connect(socketAddress);
-        return createPeer(new AsyncConnection(executorService, socketChannel), PeerType.OUTGOING);
+        AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open(eventLoopGroup.getChannelGroup());
+        try {
+            socketChannel.connect(socketAddress).get(DhtProtocol.REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            socketChannel.close();
+            throw new IOException("failed to connect to " + socketAddress, e);
+        }
+        Peer peer = createPeer(new AsyncConnection(socketChannel, eventLoopGroup), PeerType.OUTGOING);
+        peerManager.indexPeer(peer, socketAddress);
+        return peer;
     }
 
     public Peer createPeer(Connection connection, PeerType peerType) {
         Peer peer = new Peer(dispatcher, executorService, peerType, connection);
         addPeer(peer);
         peer.listen();
+        // the handshake completes in the background, PeerConnected follows once it settled either way
         try {
-//            peer.send(new GetNodeIdentityRequest().serialize());
-            NodeIdentity peerIdentity = peer.sendRequest(new GetNodeIdentityRequest(),
-                    GetNodeIdentityResponse.class).get().getNodeIdentity();
-            peer.setNodeIdentity(peerIdentity);
-        } catch (Exception e) {
+            peer.sendRequest(new GetNodeIdentityRequest(), GetNodeIdentityResponse.class)
+                    .whenCompleteAsync((response, e) -> {
+                        if(e != null) {
+                            LOG.error("GetNodeIdentityRequest failed: " + e);
+                        } else {
+                            identifyPeer(peer, response.getNodeIdentity());
+                        }
+                        dispatcher.dispatch(new PeerConnected(peer));
+                    }, executorService);
+        } catch (IOException e) {
             LOG.error("failed to send GetNodeIdentityRequest");
+            dispatcher.dispatch(new PeerConnected(peer));
         }
-        dispatcher.dispatch(new PeerConnected(peer));
         return peer;
     }
 
@@ -109,28 +172,51 @@ public class PeerStore implements Store {
         }
     }
 
+    @Override
+    public Subscription getSubscription() {
+        return SUBSCRIPTION;
+    }
+
     @Override
     public void onAction(Action action) {
         if(action instanceof PeerDisconnected) {
             removePeer(((PeerDisconnected)action).getPeer());
         }
+    }
 
-        if(action instanceof TransportableAction) {
-            TransportableAction transportableAction = (TransportableAction)action;
-            switch (transportableAction.getType()) {
-                case DhtProtocol.GET_NODE_IDENTITY_RESPONSE:
-                    handleGetNodeIdentityResponse((GetNodeIdentityResponse)transportableAction);
-                    break;
-            }
+    private void identifyPeer(Peer peer, NodeIdentity nodeIdentity) {
+        peer.setNodeIdentity(nodeIdentity);
+        peerManager.indexPeer(peer);
+    }
+
+    private Peer findLivePeer(NodeIdentity nodeIdentity) {
+        try {
+            Peer peer = peerManager.getPeer(nodeIdentity);
+            return peer.isListening() ? peer : null;
+        } catch (PeerNotFoundException e) {
+            return null;
         }
     }
 
-    private void handleGetNodeIdentityResponse(GetNodeIdentityResponse response) {
+    private Peer findLivePeer(SocketAddress socketAddress) {
         try {
-            Peer peer = getPeer(response.getSourcePeer().getId());
-            peer.setNodeIdentity(response.getNodeIdentity());
+            Peer peer = peerManager.getPeer(socketAddress);
+            return peer.isListening() ? peer : null;
         } catch (PeerNotFoundException e) {
-            LOG.warn("received GetNodeIdentityResponse for untracked peer! " + response.getSourcePeer().getId());
+            return null;
+        }
+    }
+
+    private Peer awaitConnect(SocketAddress socketAddress, CompletableFuture<Peer> connect) throws IOException {
+        try {
+            return connect.get(DhtProtocol.REQUEST_TIMEOUT * 2, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("failed to connect to " + socketAddress, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for connect to " + socketAddress, e);
+        } catch (TimeoutException e) {
+            throw new IOException("timed out waiting for connect to " + socketAddress, e);
         }
     }
 }
@@ -5,9 +5,11 @@ import com.virohtus.dht.core.engine.Dispatcher;
 import com.virohtus.dht.core.engine.action.server.ServerShutdown;
 import com.virohtus.dht.core.engine.action.server.ServerStarted;
 import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.engine.store.Subscription;
 import com.virohtus.dht.core.engine.store.peer.PeerStore;
 import com.virohtus.dht.core.network.peer.PeerType;
 import com.virohtus.dht.core.transport.connection.Connection;
+import com.virohtus.dht.core.transport.connection.EventLoopGroup;
 import com.virohtus.dht.core.transport.server.AsyncServer;
 import com.virohtus.dht.core.transport.server.Server;
 import com.virohtus.dht.core.transport.server.ServerDelegate;
@@ -22,19 +24,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class ServerStore implements Store, ServerDelegate {
 
     private static final Logger LOG = LoggerFactory.getLogger(ServerStore.class);
+    private static final Subscription SUBSCRIPTION = Subscription.NONE;
     private final Dispatcher dispatcher;
     private final ExecutorService executorService;
     private final Server server;
     private final PeerStore peerStore;
     private final AtomicBoolean shutdownLock;
 
-    public ServerStore(Dispatcher dispatcher, ExecutorService executorService,
+    public ServerStore(Dispatcher dispatcher, ExecutorService executorService, EventLoopGroup eventLoopGroup,
                        PeerStore peerStore, SocketAddress socketAddress) throws IOException {
         this.dispatcher = dispatcher;
         this.executorService = executorService;
         this.peerStore = peerStore;
         this.shutdownLock = new AtomicBoolean(false);
-        server = new AsyncServer(this, executorService, socketAddress);
+        server = new AsyncServer(this, executorService, eventLoopGroup, socketAddress);
     }
 
     public void start() {
@@ -67,6 +70,11 @@ public class ServerStore implements Store, ServerDelegate {
         return server.isListening();
     }
 
+    @Override
+    public Subscription getSubscription() {
+        return SUBSCRIPTION;
+    }
+
     @Override
     public void onAction(Action action) {
     }
@@ -6,7 +6,7 @@ import com.virohtus.dht.core.transport.io.DhtOutputStream;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -17,14 +17,13 @@ public class FingerTable implements Wireable {
     private Node predecessor;
 
     public FingerTable() {
-        successors = new ArrayList<>();
+        successors = Collections.emptyList();
         predecessor = null;
     }
 
-    public FingerTable(FingerTable copy) {
-        this();
-        successors.addAll(copy.getSuccessors().stream().map(Node::new).collect(Collectors.toList()));
-        predecessor = copy.getPredecessor();
+    private FingerTable(List<Node> successors, Node predecessor) {
+        this.successors = Collections.unmodifiableList(successors);
+        this.predecessor = predecessor;
     }
 
     public FingerTable(DhtInputStream inputStream) throws IOException {
@@ -36,24 +35,23 @@ public class FingerTable implements Wireable {
         return predecessor;
     }
 
-    public void setPredecessor(Node predecessor) {
-        this.predecessor = predecessor;
+    public FingerTable withPredecessor(Node predecessor) {
+        return new FingerTable(successors, predecessor != null ? predecessor.toReference() : null);
     }
 
     public List<Node> getSuccessors() {
         return successors;
     }
 
-    public void setSuccessors(List<Node> successors) {
-        this.successors = successors;
-    }
-
     public boolean hasSuccessors() {
         return !successors.isEmpty();
     }
 
-    public void addSuccessor(Node successor) {
-        successors.add(successor);
+    public FingerTable withSuccessor(Node successor) {
+        List<Node> updated = new ArrayList<>(successors.size() + 1);
+        updated.addAll(successors);
+        updated.add(successor.toReference());
+        return new FingerTable(updated, predecessor);
     }
 
     public Node getImmediateSuccessor() {
@@ -63,48 +61,66 @@ public class FingerTable implements Wireable {
         return successors.get(0);
     }
 
-    public void setImmediateSuccessor(Node node) {
-        successors.add(0, node);
+    public FingerTable withImmediateSuccessor(Node node) {
+        List<Node> updated = new ArrayList<>(successors.size() + 1);
+        updated.add(node.toReference());
+        updated.addAll(successors);
+        return new FingerTable(updated, predecessor);
     }
 
-    public Node removeSuccessor(NodeIdentity nodeIdentity) {
-        Node node = null;
-        Iterator<Node> nodeIterator = successors.iterator();
-        while(nodeIterator.hasNext()) {
-            Node n = nodeIterator.next();
-            if(n.getNodeIdentity().equals(nodeIdentity)) {
-                nodeIterator.remove();
-                node = n;
-            }
+    public FingerTable withoutSuccessor(NodeIdentity nodeIdentity) {
+        if(!getSuccessor(nodeIdentity).isPresent()) {
+            return this;
         }
-        return node;
+        return new FingerTable(successors.stream()
+                .filter(successor -> !successor.getNodeIdentity().equals(nodeIdentity))
+                .collect(Collectors.toList()), predecessor);
     }
 
     public Optional<Node> getSuccessor(NodeIdentity nodeIdentity) {
         return successors.stream().filter(successor -> successor.getNodeIdentity().equals(nodeIdentity)).findAny();
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        int size = Integer.BYTES;
+        for (Node successor : successors) {
+            size += successor.getReferenceWireSize();
+        }
+        size += 1;
+        if (predecessor != null) {
+            size += predecessor.getReferenceWireSize();
+        }
+        return size;
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         outputStream.writeInt(successors.size());
         for (Node successor : successors) {
-            successor.toWire(outputStream);
+            successor.referenceToWire(outputStream);
         }
         boolean predecessorExists = predecessor != null;
         outputStream.writeBoolean(predecessorExists);
         if (predecessorExists) {
-            predecessor.toWire(outputStream);
+            predecessor.referenceToWire(outputStream);
         }
     }
 
     @Override
     public void fromWire(DhtInputStream inputStream) throws IOException {
         int successorCount = inputStream.readInt();
+        if(successorCount < 0) {
+            throw new IOException("invalid successor count: " + successorCount);
+        }
+        // the count comes from the peer, the list only grows with the nodes actually read
+        List<Node> received = new ArrayList<>();
         for (int i = 0; i < successorCount; i++) {
-            successors.add(new Node(inputStream));
+            received.add(Node.referenceFromWire(inputStream));
         }
+        successors = Collections.unmodifiableList(received);
         if (inputStream.readBoolean()) {
-            predecessor = new Node(inputStream);
+            predecessor = Node.referenceFromWire(inputStream);
         }
     }
 }
@@ -26,11 +26,6 @@ public class Keyspace implements Wireable {
         this.end = end;
     }
 
-    public Keyspace(Keyspace other) {
-        this.start = other.getStart();
-        this.end = other.getEnd();
-    }
-
     public Keyspace(DhtInputStream inputStream) throws IOException {
         this();
         fromWire(inputStream);
@@ -40,45 +35,35 @@ public class Keyspace implements Wireable {
         return start;
     }
 
-    public void setStart(int start) {
-        this.start = start;
-    }
-
     public int getEnd() {
         return end;
     }
 
-    public void setEnd(int end) {
-        this.end = end;
-    }
-
     public boolean inKeyspace(int key) {
         return key > start && key <= end;
     }
 
     public Keyspace[] split() {
         int mid = (end - start) / 2 + start;
-        int originalStart = start;
-        start = mid;
         Keyspace[] split = new Keyspace[2];
-        split[0] = new Keyspace(originalStart, mid);
+        split[0] = new Keyspace(start, mid);
         split[1] = new Keyspace(mid, end);
         return split;
     }
 
-    public void merge(Keyspace keyspace) {
-        if(start > keyspace.getStart()) {
-            start = keyspace.getStart();
-        }
-        if(end < keyspace.getEnd()) {
-            end = keyspace.getEnd();
-        }
+    public Keyspace merge(Keyspace keyspace) {
+        return new Keyspace(Math.min(start, keyspace.getStart()), Math.max(end, keyspace.getEnd()));
     }
 
     public boolean isDefaultKeyspace() {
         return start == 0 && end == DhtProtocol.GLOBAL_KEYSPACE;
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        return Integer.BYTES * 2;
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         outputStream.writeInt(start);
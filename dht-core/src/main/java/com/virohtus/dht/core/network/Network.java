@@ -33,6 +33,17 @@ public class Network implements Wireable {
         }
     }
 
+    @Override
+    public int getWireSize() throws IOException {
+        synchronized (nodes) {
+            int size = Integer.BYTES;
+            for (Node node : nodes) {
+                size += node.getWireSize();
+            }
+            return size;
+        }
+    }
+
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
         synchronized (nodes) {
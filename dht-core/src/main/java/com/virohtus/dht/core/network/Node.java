@@ -8,6 +8,7 @@ import java.io.IOException;
 
 public class Node implements Wireable {
 
+    private static final FingerTable EMPTY_FINGER_TABLE = new FingerTable();
     private NodeIdentity nodeIdentity;
     private Keyspace keyspace;
     private FingerTable fingerTable;
@@ -18,34 +19,49 @@ public class Node implements Wireable {
         this.fingerTable = fingerTable;
     }
 
-    public Node(Node copy) {
-        this.nodeIdentity = new NodeIdentity(copy.getNodeIdentity());
-        this.keyspace = new Keyspace(copy.getKeyspace());
-        this.fingerTable = new FingerTable(copy.getFingerTable());
-    }
-
     public Node(DhtInputStream inputStream) throws IOException {
         fromWire(inputStream);
     }
 
+    // nested nodes only carry what is needed to reach them, never their own finger tables
+    public Node toReference() {
+        if(!fingerTable.hasSuccessors() && fingerTable.getPredecessor() == null) {
+            return this;
+        }
+        return new Node(nodeIdentity, keyspace, EMPTY_FINGER_TABLE);
+    }
+
+    public static Node referenceFromWire(DhtInputStream inputStream) throws IOException {
+        return new Node(new NodeIdentity(inputStream), new Keyspace(inputStream), EMPTY_FINGER_TABLE);
+    }
+
     public NodeIdentity getNodeIdentity() {
         return nodeIdentity;
     }
 
+    public Node withNodeIdentity(NodeIdentity nodeIdentity) {
+        return new Node(nodeIdentity, keyspace, fingerTable);
+    }
+
     public Keyspace getKeyspace() {
         return keyspace;
     }
 
-    public void setKeyspace(Keyspace keyspace) {
-        this.keyspace = keyspace;
+    public Node withKeyspace(Keyspace keyspace) {
+        return new Node(nodeIdentity, keyspace, fingerTable);
     }
 
     public FingerTable getFingerTable() {
         return fingerTable;
     }
 
-    public void setFingerTable(FingerTable fingerTable) {
-        this.fingerTable = fingerTable;
+    public Node withFingerTable(FingerTable fingerTable) {
+        return new Node(nodeIdentity, keyspace, fingerTable);
+    }
+
+    @Override
+    public int getWireSize() throws IOException {
+        return nodeIdentity.getWireSize() + keyspace.getWireSize() + fingerTable.getWireSize();
     }
 
     @Override
@@ -55,6 +71,15 @@ public class Node implements Wireable {
         fingerTable.toWire(outputStream);
     }
 
+    public int getReferenceWireSize() throws IOException {
+        return nodeIdentity.getWireSize() + keyspace.getWireSize();
+    }
+
+    public void referenceToWire(DhtOutputStream outputStream) throws IOException {
+        nodeIdentity.toWire(outputStream);
+        keyspace.toWire(outputStream);
+    }
+
     @Override
     public void fromWire(DhtInputStream inputStream) throws IOException {
         nodeIdentity = new NodeIdentity(inputStream);
@@ -3,64 +3,66 @@ package com.virohtus.dht.core.network;
 import com.virohtus.dht.core.action.Wireable;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
-import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.AddressResolver;
+import com.virohtus.dht.core.util.Id;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 
 public class NodeIdentity implements Wireable {
 
-    private String nodeId;
+    private Id nodeId;
     private SocketAddress socketAddress;
 
-    public NodeIdentity(String nodeId, SocketAddress socketAddress) {
+    public NodeIdentity(Id nodeId, SocketAddress socketAddress) {
         this.nodeId = nodeId;
         this.socketAddress = socketAddress;
     }
 
-    public NodeIdentity(NodeIdentity other) {
-        this.nodeId = other.getNodeId();
-        this.socketAddress = other.getSocketAddress();
-    }
-
     public NodeIdentity(DhtInputStream inputStream) throws IOException {
         fromWire(inputStream);
     }
 
-    public String getNodeId() {
+    public Id getNodeId() {
         return nodeId;
     }
 
-    public void setNodeId(String nodeId) {
-        this.nodeId = nodeId;
-    }
-
     public SocketAddress getSocketAddress() {
         return socketAddress;
     }
 
-    public void setSocketAddress(SocketAddress socketAddress) {
-        this.socketAddress = socketAddress;
+    public NodeIdentity withSocketAddress(SocketAddress socketAddress) {
+        return new NodeIdentity(nodeId, socketAddress);
+    }
+
+    @Override
+    public int getWireSize() throws IOException {
+        return nodeId.getWireSize() + Integer.BYTES + resolveAddress().getAddress().getAddress().length + Integer.BYTES;
     }
 
     @Override
     public void toWire(DhtOutputStream outputStream) throws IOException {
-        outputStream.writeSizedData(nodeId.getBytes(DhtProtocol.STRING_ENCODING));
-        if(!(socketAddress instanceof InetSocketAddress)) {
-            throw new IllegalArgumentException("have not implemented serialization for non InetSocketAddress types!");
-        }
-        InetSocketAddress inetSocketAddress = (InetSocketAddress) socketAddress;
-        outputStream.writeSizedData(DhtProtocol.HOSTNAME.getBytes(DhtProtocol.STRING_ENCODING));
+        nodeId.toWire(outputStream);
+        InetSocketAddress inetSocketAddress = resolveAddress();
+        outputStream.writeSizedData(inetSocketAddress.getAddress().getAddress());
         outputStream.writeInt(inetSocketAddress.getPort());
     }
 
     @Override
     public void fromWire(DhtInputStream inputStream) throws IOException {
-        nodeId = new String(inputStream.readSizedData(), DhtProtocol.STRING_ENCODING);
-        String hostname = new String(inputStream.readSizedData(), DhtProtocol.STRING_ENCODING);
+        nodeId = new Id(inputStream);
+        InetAddress address = InetAddress.getByAddress(inputStream.readSizedData());
         int port = inputStream.readInt();
-        socketAddress = new InetSocketAddress(hostname, port);
+        socketAddress = new InetSocketAddress(address, port);
+    }
+
+    private InetSocketAddress resolveAddress() throws IOException {
+        if(!(socketAddress instanceof InetSocketAddress)) {
+            throw new IllegalArgumentException("have not implemented serialization for non InetSocketAddress types!");
+        }
+        return AddressResolver.getInstance().resolve((InetSocketAddress) socketAddress);
     }
 
     @Override
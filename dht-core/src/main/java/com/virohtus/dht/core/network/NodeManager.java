@@ -1,62 +1,55 @@
 package com.virohtus.dht.core.network;
 
 import java.net.SocketAddress;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.UnaryOperator;
 
 public class NodeManager {
 
-    private final Node node;
+    private final Object writeLock;
+    private volatile Node node;
 
     public NodeManager(Node node) {
+        this.writeLock = new Object();
         this.node = node;
     }
 
+    // snapshots are immutable, readers never lock or copy
     public Node getCurrentNode() {
-        synchronized (node) {
-            return new Node(node);
-        }
+        return node;
     }
 
     public void setSocketAddress(SocketAddress socketAddress) {
-        synchronized (node) {
-            node.getNodeIdentity().setSocketAddress(socketAddress);
-        }
+        update(current -> current.withNodeIdentity(current.getNodeIdentity().withSocketAddress(socketAddress)));
     }
 
     public void setKeyspace(Keyspace keyspace) {
-        synchronized (node) {
-            node.setKeyspace(keyspace);
-        }
+        update(current -> current.withKeyspace(keyspace));
     }
 
     public void mergeKeyspace(Keyspace keyspace) {
-        synchronized (node) {
-            node.getKeyspace().merge(keyspace);
-        }
+        update(current -> current.withKeyspace(current.getKeyspace().merge(keyspace)));
     }
 
     public void setFingerTable(FingerTable fingerTable) {
-        synchronized (node) {
-            node.setFingerTable(fingerTable);
-        }
+        update(current -> current.withFingerTable(fingerTable));
     }
 
     public void setPredecessor(Node predecessor) {
-        synchronized (node) {
-            node.getFingerTable().setPredecessor(predecessor);
-        }
+        update(current -> current.withFingerTable(current.getFingerTable().withPredecessor(predecessor)));
     }
 
     public void setImmediateSuccessor(Node successor) {
-        synchronized (node) {
-            node.getFingerTable().setImmediateSuccessor(successor);
-        }
+        update(current -> current.withFingerTable(current.getFingerTable().withImmediateSuccessor(successor)));
     }
 
     public void removeSuccessor(NodeIdentity successor) {
-        synchronized (node) {
-            node.getFingerTable().removeSuccessor(successor);
+        update(current -> current.withFingerTable(current.getFingerTable().withoutSuccessor(successor)));
+    }
+
+    // writers are serialized so concurrent updates never lose each other
+    private void update(UnaryOperator<Node> updater) {
+        synchronized (writeLock) {
+            node = updater.apply(node);
         }
     }
 }
@@ -0,0 +1,95 @@
+package com.virohtus.dht.core.network.peer;
+
+import com.virohtus.dht.core.action.ActionBatch;
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.util.DeadlineTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ActionBatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ActionBatcher.class);
+    private final Sender sender;
+    private final DeadlineTimer deadlineTimer;
+    private final long linger;
+    private final int maxBatchSize;
+    private final Object batchLock;
+    private final Map<Integer, List<TransportableAction>> pendingBatches;
+
+    public ActionBatcher(Sender sender, DeadlineTimer deadlineTimer, long linger, int maxBatchSize) {
+        this.sender = sender;
+        this.deadlineTimer = deadlineTimer;
+        this.linger = linger;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLock = new Object();
+        this.pendingBatches = new HashMap<>();
+    }
+
+    // the first action of a batch starts the linger window, a full batch goes out immediately
+    public void add(TransportableAction action) throws IOException {
+        int streamId = action.getStreamId();
+        List<TransportableAction> full = null;
+        synchronized (batchLock) {
+            List<TransportableAction> batch = pendingBatches.computeIfAbsent(streamId, id -> new ArrayList<>());
+            batch.add(action);
+            if(batch.size() >= maxBatchSize) {
+                full = pendingBatches.remove(streamId);
+            } else if(batch.size() == 1) {
+                deadlineTimer.schedule(() -> flushQuietly(streamId), linger);
+            }
+        }
+        if(full != null) {
+            send(streamId, full);
+        }
+    }
+
+    public void flush() throws IOException {
+        List<Map.Entry<Integer, List<TransportableAction>>> batches;
+        synchronized (batchLock) {
+            batches = new ArrayList<>(pendingBatches.entrySet());
+            pendingBatches.clear();
+        }
+        for (Map.Entry<Integer, List<TransportableAction>> batch : batches) {
+            send(batch.getKey(), batch.getValue());
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (batchLock) {
+            return pendingBatches.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    private void flushQuietly(int streamId) {
+        List<TransportableAction> batch;
+        synchronized (batchLock) {
+            batch = pendingBatches.remove(streamId);
+        }
+        if(batch == null) {
+            return;
+        }
+        try {
+            send(streamId, batch);
+        } catch (IOException e) {
+            LOG.warn("failed to send batch of " + batch.size() + " actions: " + e.getMessage());
+        }
+    }
+
+    private void send(int streamId, List<TransportableAction> batch) throws IOException {
+        if(batch.size() == 1) {
+            sender.send(batch.get(0));
+        } else {
+            sender.send(new ActionBatch(streamId, batch));
+        }
+    }
+
+    public interface Sender {
+        void send(TransportableAction action) throws IOException;
+    }
+}
@@ -4,36 +4,44 @@ import com.virohtus.dht.core.action.*;
 import com.virohtus.dht.core.engine.Dispatcher;
 import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
 import com.virohtus.dht.core.engine.action.network.GetNodeIdentityResponse;
+import com.virohtus.dht.core.engine.action.network.OverloadedResponse;
 import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.engine.action.peer.PeerWritabilityChanged;
 import com.virohtus.dht.core.network.NodeIdentity;
 import com.virohtus.dht.core.transport.connection.Connection;
 import com.virohtus.dht.core.transport.connection.ConnectionDelegate;
 import com.virohtus.dht.core.transport.protocol.DhtEvent;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.Deadline;
+import com.virohtus.dht.core.util.DeadlineTimer;
 import com.virohtus.dht.core.util.IdService;
-import com.virohtus.dht.core.util.Resolvable;
+import com.virohtus.dht.core.util.RequestTable;
+import com.virohtus.dht.core.util.Id;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Peer implements ConnectionDelegate {
 
     private static final Logger LOG = LoggerFactory.getLogger(Peer.class);
-    private final String id;
+    private static final int REGISTER_ATTEMPTS = 16;
+    private final Id id;
     private PeerType type;
     private final Dispatcher dispatcher;
     private final ExecutorService executorService;
     private final Connection connection;
     private final ActionFactory actionFactory = ActionFactory.getInstance();
-    private final Map<String, Resolvable<ResponseAction>> pendingRequests;
+    private final DeadlineTimer deadlineTimer = DeadlineTimer.getInstance();
+    private final RequestTable<CompletableFuture<ResponseAction>> pendingRequests;
+    private final AtomicLong nextRequestId;
+    private final ActionBatcher actionBatcher;
     private NodeIdentity nodeIdentity;
 
     public Peer(Dispatcher dispatcher, ExecutorService executorService, PeerType type, Connection connection) {
@@ -42,11 +50,13 @@ public class Peer implements ConnectionDelegate {
         this.executorService = executorService;
         this.type = type;
         this.connection = connection;
-        this.pendingRequests = new HashMap<>();
+        this.pendingRequests = new RequestTable<>(DhtProtocol.MAX_PENDING_REQUESTS * 2);
+        this.nextRequestId = new AtomicLong(0);
+        this.actionBatcher = new ActionBatcher(this::send, deadlineTimer, DhtProtocol.BATCH_LINGER, DhtProtocol.MAX_BATCH_SIZE);
         connection.setConnectionDelegate(this);
     }
 
-    public String getId() {
+    public Id getId() {
         return id;
     }
 
@@ -82,19 +92,74 @@ public class Peer implements ConnectionDelegate {
         connection.send(data);
     }
 
-    public <T extends ResponseAction> Resolvable<T> sendRequest(RequestAction requestAction, Class<T> responseClass) throws IOException {
-        synchronized (pendingRequests) {
-            send(requestAction.serialize());
-            pendingRequests.put(requestAction.getRequestId(), new Resolvable<>(DhtProtocol.REQUEST_TIMEOUT));
+    public void send(TransportableAction action) throws IOException {
+        send(new DhtEvent(action.getStreamId(), action.serialize()));
+    }
+
+    // held for up to BATCH_LINGER so bursts of small actions share one frame
+    public void sendBatched(TransportableAction action) throws IOException {
+        actionBatcher.add(action);
+    }
+
+    public void flushBatched() throws IOException {
+        actionBatcher.flush();
+    }
+
+    public <T extends ResponseAction> CompletableFuture<T> sendRequest(RequestAction requestAction, Class<T> responseClass) throws IOException {
+        return sendRequest(requestAction, responseClass, DhtProtocol.REQUEST_TIMEOUT);
+    }
+
+    // completed by dataReceived, or failed with a TimeoutException once the timeout passes. requests ride the
+    // batcher so bursts of them share frames
+    public <T extends ResponseAction> CompletableFuture<T> sendRequest(RequestAction requestAction, Class<T> responseClass, long timeout) throws IOException {
+        if(requestAction.getDeadline().isNone()) {
+            requestAction.setDeadline(Deadline.after(timeout));
+        }
+        // a request whose budget is already spent fails here instead of taking a slot and a frame
+        if(requestAction.isExpired()) {
+            CompletableFuture<T> expired = new CompletableFuture<>();
+            expired.completeExceptionally(new TimeoutException("request deadline passed before sending"));
+            return expired;
         }
-        Resolvable<ResponseAction> responseResolvable;
-        synchronized (pendingRequests) {
-            responseResolvable = pendingRequests.get(requestAction.getRequestId());
+        if(pendingRequests.size() >= DhtProtocol.MAX_PENDING_REQUESTS) {
+            throw new IOException("too many requests in flight to " + this);
         }
-        return (Resolvable<T>) responseResolvable;
+        CompletableFuture<ResponseAction> response = new CompletableFuture<>();
+        // registered before the frame is written so even an immediate response finds its request
+        long requestId = registerRequest(response);
+        requestAction.setRequestId(requestId);
+        timeout = Math.min(timeout, requestAction.getDeadline().remaining());
+        try {
+            sendBatched(requestAction);
+        } catch (IOException e) {
+            pendingRequests.remove(requestId);
+            throw e;
+        }
+        deadlineTimer.withDeadline(response, timeout, () -> pendingRequests.remove(requestId));
+        return response.thenApply(responseClass::cast);
+    }
+
+    // an id whose slot is still held by a slow request one table width earlier is skipped, not failed
+    private long registerRequest(CompletableFuture<ResponseAction> response) throws IOException {
+        for(int attempt = 0; attempt < REGISTER_ATTEMPTS; attempt++) {
+            long requestId = nextRequestId.incrementAndGet();
+            if(pendingRequests.register(requestId, response)) {
+                return requestId;
+            }
+        }
+        throw new IOException("no free request slot for " + this + " after " + REGISTER_ATTEMPTS + " attempts");
+    }
+
+    public int getPendingRequestCount() {
+        return pendingRequests.size();
     }
 
     public void shutdown() {
+        try {
+            actionBatcher.flush();
+        } catch (IOException e) {
+            LOG.warn("failed to flush batched actions on shutdown: " + e.getMessage());
+        }
         connection.close();
     }
 
@@ -102,37 +167,66 @@ public class Peer implements ConnectionDelegate {
         return connection.isListening();
     }
 
+    public boolean isWritable() {
+        return connection.isWritable();
+    }
+
     @Override
     public void dataReceived(DhtEvent event) {
+        int streamId = event.getHeaders().getStreamId();
+        if(streamId < 0 || streamId >= DhtProtocol.STREAM_COUNT) {
+            LOG.warn("dropping message on unknown stream: " + streamId);
+            return;
+        }
         try {
             TransportableAction action = actionFactory.createTransportableAction(event);
-            action.setSourcePeer(this);
-
-            if(action instanceof ResponseAction) {
-                ResponseAction responseAction = (ResponseAction) action;
-                Resolvable<ResponseAction> responseResolvable;
-                synchronized (pendingRequests) {
-                    responseResolvable = pendingRequests.remove(responseAction.getRequestId());
-                }
-                if(responseResolvable != null) {
-                    responseResolvable.resolve(responseAction);
-                } else {
-                    LOG.warn("received ResponseAction without a tracked request!");
+            if(action instanceof ActionBatch) {
+                for (TransportableAction batchedAction : ((ActionBatch) action).getActions()) {
+                    actionReceived(batchedAction);
                 }
             } else {
-                dispatcher.dispatch(action);
+                actionReceived(action);
             }
         } catch (IOException e) {
             LOG.warn("receive failure: " + e.getMessage());
             shutdown();
+            return;
+        }
+        // the loop thread never waits on a saturated dispatcher, this connection just stops reading for a while
+        if(dispatcher.isSaturated()) {
+            connection.pauseReading();
+            dispatcher.whenUnsaturated(connection::resumeReading);
+        }
+    }
+
+    private void actionReceived(TransportableAction action) {
+        action.setSourcePeer(this);
+        if(action instanceof ResponseAction) {
+            ResponseAction responseAction = (ResponseAction) action;
+            CompletableFuture<ResponseAction> response = pendingRequests.remove(responseAction.getRequestId());
+            if(response == null) {
+                LOG.warn("received ResponseAction without a tracked request!");
+            } else if(responseAction instanceof OverloadedResponse) {
+                response.completeExceptionally(new PeerOverloadedException(this + " shed request " + responseAction.getRequestId()));
+            } else {
+                response.complete(responseAction);
+            }
+        } else {
+            dispatcher.dispatch(action);
         }
     }
 
     @Override
     public void listenerDisrupted() {
+        pendingRequests.drain(response -> response.completeExceptionally(new IOException("peer disconnected: " + this)));
         dispatcher.dispatch(new PeerDisconnected(this));
     }
 
+    @Override
+    public void writabilityChanged(boolean writable) {
+        dispatcher.dispatch(new PeerWritabilityChanged(this, writable));
+    }
+
     @Override
     public String toString() {
         return String.format("peerId: %s type: %s", id, type);
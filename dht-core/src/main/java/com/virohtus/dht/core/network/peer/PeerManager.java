@@ -1,14 +1,19 @@
 package com.virohtus.dht.core.network.peer;
 
 import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.util.Id;
 
+import java.net.SocketAddress;
 import java.util.Set;
 
 public interface PeerManager {
 
-    Peer getPeer(String peerId) throws PeerNotFoundException;
+    Peer getPeer(Id peerId) throws PeerNotFoundException;
     Peer getPeer(NodeIdentity nodeIdentity) throws PeerNotFoundException;
+    Peer getPeer(SocketAddress socketAddress) throws PeerNotFoundException;
     void addPeer(Peer peer);
+    void indexPeer(Peer peer);
+    void indexPeer(Peer peer, SocketAddress socketAddress);
     void removePeer(Peer peer);
     Set<Peer> getAllPeers();
     boolean isEmpty();
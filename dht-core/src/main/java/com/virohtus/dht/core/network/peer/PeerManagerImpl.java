@@ -1,23 +1,31 @@
 package com.virohtus.dht.core.network.peer;
 
 import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.util.Id;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.SocketAddress;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 public class PeerManagerImpl implements PeerManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(PeerManagerImpl.class);
     private final Set<Peer> peers;
+    private final Map<NodeIdentity, Peer> peersByIdentity;
+    private final Map<SocketAddress, Peer> peersByAddress;
 
     public PeerManagerImpl() {
         peers = new HashSet<>();
+        peersByIdentity = new HashMap<>();
+        peersByAddress = new HashMap<>();
     }
 
     @Override
-    public Peer getPeer(String peerId) throws PeerNotFoundException {
+    public Peer getPeer(Id peerId) throws PeerNotFoundException {
         synchronized (peers) {
             for(Peer peer : peers) {
                 if(peer.getId().equals(peerId)) {
@@ -31,17 +39,43 @@ public class PeerManagerImpl implements PeerManager {
     @Override
     public Peer getPeer(NodeIdentity nodeIdentity) throws PeerNotFoundException {
         synchronized (peers) {
-            for (Peer peer : peers) {
-                try {
-                    NodeIdentity peerIdentity = peer.getNodeIdentity();
-                    if (peerIdentity.equals(nodeIdentity)) {
-                        return peer;
-                    }
-                } catch(Exception e) {
-                    LOG.error("failed to get PeerIdentity!");
+            Peer peer = peersByIdentity.get(nodeIdentity);
+            if(peer != null && peer.isListening()) {
+                return peer;
+            }
+            // peers added before their identity was known, or after a dead peer took the slot, are indexed on lookup
+            for(Peer candidate : peers) {
+                if(candidate != peer && candidate.isListening() && nodeIdentity.equals(candidate.getNodeIdentity())) {
+                    indexPeer(candidate);
+                    return candidate;
                 }
             }
-            throw new PeerNotFoundException();
+            if(peer == null) {
+                throw new PeerNotFoundException();
+            }
+            return peer;
+        }
+    }
+
+    @Override
+    public Peer getPeer(SocketAddress socketAddress) throws PeerNotFoundException {
+        synchronized (peers) {
+            Peer peer = peersByAddress.get(socketAddress);
+            if(peer != null && peer.isListening()) {
+                return peer;
+            }
+            for(Peer candidate : peers) {
+                NodeIdentity nodeIdentity = candidate.getNodeIdentity();
+                if(candidate != peer && candidate.isListening() && nodeIdentity != null
+                        && socketAddress.equals(nodeIdentity.getSocketAddress())) {
+                    indexPeer(candidate, socketAddress);
+                    return candidate;
+                }
+            }
+            if(peer == null) {
+                throw new PeerNotFoundException();
+            }
+            return peer;
         }
     }
 
@@ -49,6 +83,34 @@ public class PeerManagerImpl implements PeerManager {
     public void addPeer(Peer peer) {
         synchronized (peers) {
             peers.add(peer);
+            indexPeer(peer);
+        }
+    }
+
+    // the first live peer indexed for an identity or address keeps it, regardless of direction, until it dies
+    @Override
+    public void indexPeer(Peer peer) {
+        NodeIdentity nodeIdentity = peer.getNodeIdentity();
+        if(nodeIdentity == null) {
+            return;
+        }
+        synchronized (peers) {
+            if(!peers.contains(peer)) {
+                return;
+            }
+            index(peersByIdentity, nodeIdentity, peer);
+        }
+        if(nodeIdentity.getSocketAddress() != null) {
+            indexPeer(peer, nodeIdentity.getSocketAddress());
+        }
+    }
+
+    @Override
+    public void indexPeer(Peer peer, SocketAddress socketAddress) {
+        synchronized (peers) {
+            if(peers.contains(peer)) {
+                index(peersByAddress, socketAddress, peer);
+            }
         }
     }
 
@@ -56,6 +118,8 @@ public class PeerManagerImpl implements PeerManager {
     public void removePeer(Peer peer) {
         synchronized (peers) {
             peers.remove(peer);
+            peersByIdentity.values().removeIf(peer::equals);
+            peersByAddress.values().removeIf(peer::equals);
         }
     }
 
@@ -78,7 +142,16 @@ public class PeerManagerImpl implements PeerManager {
         synchronized (peers) {
             Set<Peer> tmp = getAllPeers();
             peers.clear();
+            peersByIdentity.clear();
+            peersByAddress.clear();
             return tmp;
         }
     }
+
+    private <K> void index(Map<K, Peer> index, K key, Peer peer) {
+        Peer existing = index.get(key);
+        if(existing == null || !existing.isListening()) {
+            index.put(key, peer);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package com.virohtus.dht.core.network.peer;
+
+import java.io.IOException;
+
+public class PeerOverloadedException extends IOException {
+
+    public PeerOverloadedException(String message) {
+        super(message);
+    }
+}
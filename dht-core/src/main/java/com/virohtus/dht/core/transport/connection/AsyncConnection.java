@@ -1,97 +1,150 @@
 package com.virohtus.dht.core.transport.connection;
 
 import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.io.PayloadCompressor;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 import com.virohtus.dht.core.transport.protocol.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.AsynchronousSocketChannel;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class AsyncConnection implements Connection {
 
     private static final Logger LOG = LoggerFactory.getLogger(AsyncConnection.class);
-    private final ExecutorService executorService;
+    private static final int MAX_GATHERED_BUFFERS = 64;
     private final AsynchronousSocketChannel socketChannel;
     private final Object connectionDelegateLock;
     private ConnectionDelegate connectionDelegate;
-    private Future listenerFuture;
-    private final Object writeLock;
+    private final AtomicBoolean listening;
+    private final AtomicBoolean readPaused;
+    private final AtomicBoolean readDeferred;
+    private final FrameDecoder frameDecoder;
+    private final StreamAssembler streamAssembler;
+    private final CompletionHandler<Integer, Void> readHandler;
+    private final Map<Integer, Queue<OutboundMessage>> outboundStreams;
+    private final AtomicBoolean writing;
+    private final ByteBuffer[] writeBuffers;
+    private int writeCount;
+    private final CompletionHandler<Long, Void> writeHandler;
+    private final AtomicLong queuedBytes;
+    private final AtomicBoolean writable;
+    private volatile long lowWatermark;
+    private volatile long highWatermark;
+    private final PayloadCompressor payloadCompressor;
+    private volatile boolean compressionEnabled;
+    private volatile boolean peerAcceptsCompression;
 
-    public AsyncConnection(ExecutorService executorService,
-                           AsynchronousSocketChannel socketChannel) {
-        this.executorService = executorService;
+    public AsyncConnection(AsynchronousSocketChannel socketChannel) {
+        this(socketChannel, null);
+    }
+
+    public AsyncConnection(AsynchronousSocketChannel socketChannel, EventLoopGroup eventLoopGroup) {
         this.socketChannel = socketChannel;
         this.connectionDelegateLock = new Object();
-        this.writeLock = new Object();
+        this.listening = new AtomicBoolean(false);
+        this.readPaused = new AtomicBoolean(false);
+        this.readDeferred = new AtomicBoolean(false);
+        this.frameDecoder = new FrameDecoder();
+        this.streamAssembler = new StreamAssembler();
+        this.readHandler = eventLoopGroup != null ? eventLoopGroup.instrument(new ReadHandler()) : new ReadHandler();
+        this.outboundStreams = new ConcurrentHashMap<>();
+        this.writing = new AtomicBoolean(false);
+        this.writeBuffers = new ByteBuffer[MAX_GATHERED_BUFFERS];
+        this.writeHandler = eventLoopGroup != null ? eventLoopGroup.instrument(new WriteHandler()) : new WriteHandler();
+        this.queuedBytes = new AtomicLong(0);
+        this.writable = new AtomicBoolean(true);
+        this.lowWatermark = DhtProtocol.WRITE_LOW_WATERMARK;
+        this.highWatermark = DhtProtocol.WRITE_HIGH_WATERMARK;
+        this.payloadCompressor = new PayloadCompressor();
+        this.compressionEnabled = true;
+        this.peerAcceptsCompression = false;
     }
 
     @Override
     public void listen() {
-        if(isListening()) {
+        if(!listening.compareAndSet(false, true)) {
             return;
         }
-        final AtomicBoolean started = new AtomicBoolean(false);
-        listenerFuture = executorService.submit(() -> {
-            synchronized (started) {
-                started.set(true);
-                started.notifyAll();
-            }
-            try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    byte[] headerData = readSizedData(DhtProtocol.HEADER_SIZE);
-                    Headers headers = Headers.deserialize(headerData);
-                    byte[] payload = readSizedData(headers.getPayloadLength());
-                    DhtEvent event = new DhtEvent(headers, payload);
-                    synchronized (connectionDelegateLock) {
-                        if (connectionDelegate != null) {
-                            connectionDelegate.dataReceived(event);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                Throwable cause = e.getCause();
-                if(cause == null || !(cause instanceof AsynchronousCloseException)){
-                    LOG.info("receiver error: " + e);
-                }
-            } finally {
-                if(connectionDelegate != null) {
-                    connectionDelegate.listenerDisrupted();
-                }
-            }
-        });
-        synchronized (started) {
-            while(!started.get()) {
-                try {
-                    started.wait();
-                } catch (InterruptedException e) {
-                    LOG.error("wait for connection listener startup interrupted");
-                }
-            }
-        }
+        read();
     }
 
     @Override
     public boolean isListening() {
-        return listenerFuture != null && !listenerFuture.isCancelled() && !listenerFuture.isDone();
+        return listening.get();
+    }
+
+    // takes effect once the frames of the current read are delivered, the next read is only armed on resume
+    @Override
+    public void pauseReading() {
+        readPaused.set(true);
+    }
+
+    @Override
+    public void resumeReading() {
+        readPaused.set(false);
+        if(readDeferred.compareAndSet(true, false)) {
+            read();
+        }
     }
 
     @Override
     public void send(DhtEvent event) throws IOException {
-        synchronized (writeLock) {
-            try {
-                socketChannel.write(ByteBuffer.wrap(event.getBytes())).get();
-            } catch (Exception e) {
-                throw new IOException(e);
-            }
+        if(!socketChannel.isOpen()) {
+            throw new IOException("connection closed");
+        }
+        event = encode(event);
+        OutboundMessage message = new OutboundMessage(event);
+        outboundStreams.computeIfAbsent(event.getHeaders().getStreamId(), streamId -> new ConcurrentLinkedQueue<>())
+                .add(message);
+        if(queuedBytes.addAndGet(message.getSize()) > highWatermark) {
+            updateWritability(false);
+        }
+        write();
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public boolean isCompressionNegotiated() {
+        return compressionEnabled && peerAcceptsCompression;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return writable.get();
+    }
+
+    @Override
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    @Override
+    public void setWriteWatermarks(long lowWatermark, long highWatermark) {
+        if(lowWatermark < 0 || lowWatermark > highWatermark) {
+            throw new IllegalArgumentException("invalid write watermarks! low: " + lowWatermark + " high: " + highWatermark);
+        }
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        long queued = queuedBytes.get();
+        if(queued > highWatermark) {
+            updateWritability(false);
+        } else if(queued <= lowWatermark) {
+            updateWritability(true);
         }
     }
 
@@ -111,18 +164,263 @@ public class AsyncConnection implements Connection {
         }
     }
 
-    private byte[] readSizedData(int dataSize) throws ExecutionException, InterruptedException, IOException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        int totalRead = 0;
-        while(totalRead < dataSize) {
-            ByteBuffer byteBuffer = ByteBuffer.allocate(dataSize);
-            int received = socketChannel.read(byteBuffer).get();
+    // every frame advertises whether we can inflate, large frames are deflated once the peer has advertised the same
+    private DhtEvent encode(DhtEvent event) {
+        if(!compressionEnabled) {
+            return event;
+        }
+        Headers headers = event.getHeaders();
+        byte[] payload = event.getPayload();
+        int flags = headers.getFlags() | DhtProtocol.FLAG_ACCEPTS_COMPRESSION;
+        if(peerAcceptsCompression && payload.length >= DhtProtocol.COMPRESSION_THRESHOLD) {
+            byte[] compressed = payloadCompressor.compress(payload);
+            if(compressed != null) {
+                payload = compressed;
+                flags |= DhtProtocol.FLAG_COMPRESSED;
+            }
+        }
+        return new DhtEvent(new Headers(headers.getVersion(), payload.length, flags, headers.getStreamId()), payload);
+    }
+
+    private DhtEvent decode(DhtEvent event) throws IOException {
+        Headers headers = event.getHeaders();
+        if(headers.hasFlag(DhtProtocol.FLAG_ACCEPTS_COMPRESSION)) {
+            peerAcceptsCompression = true;
+        }
+        if(!headers.hasFlag(DhtProtocol.FLAG_COMPRESSED)) {
+            return event;
+        }
+        byte[] payload = payloadCompressor.decompress(event.getPayload());
+        return new DhtEvent(new Headers(headers.getVersion(), payload.length,
+                headers.getFlags() & ~DhtProtocol.FLAG_COMPRESSED, headers.getStreamId()), payload);
+    }
+
+    private void read() {
+        try {
+            socketChannel.read(frameDecoder.getReadBuffer(), null, readHandler);
+        } catch (Exception e) {
+            listenerStopped(e);
+        }
+    }
+
+    // whichever of the read handler and resumeReading sees the read deferred and unpaused arms it
+    private void rearmRead() {
+        readDeferred.set(true);
+        if(!readPaused.get() && readDeferred.compareAndSet(true, false)) {
+            read();
+        }
+    }
+
+    // delegates are called outside the lock, they may send on this connection and end up in updateWritability
+    private ConnectionDelegate getConnectionDelegate() {
+        synchronized (connectionDelegateLock) {
+            return connectionDelegate;
+        }
+    }
+
+    private void write() {
+        while(writing.compareAndSet(false, true)) {
+            if(gatherWriteBuffers()) {
+                writeGathered();
+                return;
+            }
+            writing.set(false);
+            if(!hasQueuedMessages()) {
+                return;
+            }
+        }
+    }
+
+    private boolean hasQueuedMessages() {
+        for(Queue<OutboundMessage> stream : outboundStreams.values()) {
+            if(!stream.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // only called by the current writer: keeps unfinished buffers and tops up one chunk per stream per round,
+    // so a large message on one stream never holds back the frames queued on another
+    private boolean gatherWriteBuffers() {
+        int kept = 0;
+        for(int i = 0; i < writeCount; i++) {
+            if(writeBuffers[i].hasRemaining()) {
+                writeBuffers[kept++] = writeBuffers[i];
+            }
+        }
+        for(int i = kept; i < writeCount; i++) {
+            writeBuffers[i] = null;
+        }
+        writeCount = kept;
+        boolean gathered = true;
+        while(gathered && writeCount + 2 <= MAX_GATHERED_BUFFERS) {
+            gathered = false;
+            for(Queue<OutboundMessage> stream : outboundStreams.values()) {
+                if(writeCount + 2 > MAX_GATHERED_BUFFERS) {
+                    break;
+                }
+                OutboundMessage message = stream.peek();
+                if(message == null) {
+                    continue;
+                }
+                writeCount = message.nextChunk(writeBuffers, writeCount);
+                if(!message.hasRemainingChunks()) {
+                    stream.poll();
+                }
+                gathered = true;
+            }
+        }
+        return writeCount > 0;
+    }
+
+    private void writeGathered() {
+        try {
+            socketChannel.write(writeBuffers, 0, writeCount, 0L, TimeUnit.MILLISECONDS, null, writeHandler);
+        } catch (Exception e) {
+            writeFailed(e);
+        }
+    }
+
+    private void writeFailed(Throwable cause) {
+        if(!(cause instanceof AsynchronousCloseException) && !(cause instanceof ClosedChannelException)) {
+            LOG.warn("write error: " + cause);
+        }
+        outboundStreams.clear();
+        close();
+    }
+
+    private void updateWritability(boolean writable) {
+        if(!this.writable.compareAndSet(!writable, writable)) {
+            return;
+        }
+        ConnectionDelegate connectionDelegate = getConnectionDelegate();
+        if(connectionDelegate != null) {
+            connectionDelegate.writabilityChanged(writable);
+        }
+        // a concurrent drain may have crossed the low watermark before we flipped to unwritable
+        if(!writable && queuedBytes.get() <= lowWatermark) {
+            updateWritability(true);
+        }
+    }
+
+    private void listenerStopped(Throwable cause) {
+        if(!listening.compareAndSet(true, false)) {
+            return;
+        }
+        if(!(cause instanceof AsynchronousCloseException) && !(cause instanceof ClosedChannelException)) {
+            LOG.info("receiver error: " + cause);
+        }
+        ConnectionDelegate connectionDelegate = getConnectionDelegate();
+        if(connectionDelegate != null) {
+            connectionDelegate.listenerDisrupted();
+        }
+    }
+
+    // invoked on the channel group's threads; decodes every complete frame then re-arms the read unless paused
+    private class ReadHandler implements CompletionHandler<Integer, Void> {
+
+        @Override
+        public void completed(Integer received, Void attachment) {
             if(received < 0) {
-                throw new IOException("data stream ended prematurely");
+                listenerStopped(new IOException("data stream ended prematurely"));
+                return;
+            }
+            try {
+                DhtEvent event;
+                while((event = frameDecoder.nextFrame()) != null) {
+                    // checked before reassembly so a peer cannot open partial messages on arbitrary stream ids
+                    int streamId = event.getHeaders().getStreamId();
+                    if(streamId < 0 || streamId >= DhtProtocol.STREAM_COUNT) {
+                        LOG.warn("dropping frame on unknown stream: " + streamId);
+                        continue;
+                    }
+                    event = streamAssembler.accept(event);
+                    if(event == null) {
+                        continue;
+                    }
+                    event = decode(event);
+                    ConnectionDelegate connectionDelegate = getConnectionDelegate();
+                    if (connectionDelegate != null) {
+                        connectionDelegate.dataReceived(event);
+                    }
+                }
+            } catch (Exception e) {
+                listenerStopped(e);
+                return;
+            }
+            rearmRead();
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            listenerStopped(exc);
+        }
+    }
+
+    // writes stay serialized: writing is only released once nothing is left in flight
+    private class WriteHandler implements CompletionHandler<Long, Void> {
+
+        @Override
+        public void completed(Long written, Void attachment) {
+            if(queuedBytes.addAndGet(-written) <= lowWatermark) {
+                updateWritability(true);
             }
-            byteArrayOutputStream.write(byteBuffer.array(), 0, received);
-            totalRead += received;
+            if(gatherWriteBuffers()) {
+                writeGathered();
+                return;
+            }
+            writing.set(false);
+            if(hasQueuedMessages()) {
+                write();
+            }
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            writeFailed(exc);
+        }
+    }
+
+    // a message split into chunk frames up front; only the current writer advances it
+    private static class OutboundMessage {
+
+        private final ByteBuffer[] frames;
+        private final long size;
+        private int nextFrame;
+
+        private OutboundMessage(DhtEvent event) {
+            Headers headers = event.getHeaders();
+            byte[] payload = event.getPayload();
+            int chunks = Math.max(1, (payload.length + DhtProtocol.MAX_CHUNK_SIZE - 1) / DhtProtocol.MAX_CHUNK_SIZE);
+            this.frames = new ByteBuffer[chunks * 2];
+            for(int chunk = 0; chunk < chunks; chunk++) {
+                int offset = chunk * DhtProtocol.MAX_CHUNK_SIZE;
+                int length = Math.min(DhtProtocol.MAX_CHUNK_SIZE, payload.length - offset);
+                int flags = chunk < chunks - 1
+                        ? headers.getFlags() | DhtProtocol.FLAG_MORE_CHUNKS
+                        : headers.getFlags() & ~DhtProtocol.FLAG_MORE_CHUNKS;
+                ByteBuffer chunkHeaders = ByteBuffer.allocate(DhtProtocol.HEADER_SIZE);
+                new Headers(headers.getVersion(), length, flags, headers.getStreamId()).writeTo(chunkHeaders);
+                chunkHeaders.flip();
+                frames[chunk * 2] = chunkHeaders;
+                frames[chunk * 2 + 1] = ByteBuffer.wrap(payload, offset, length);
+            }
+            this.size = (long) chunks * DhtProtocol.HEADER_SIZE + payload.length;
+        }
+
+        private long getSize() {
+            return size;
+        }
+
+        private int nextChunk(ByteBuffer[] buffers, int offset) {
+            buffers[offset++] = frames[nextFrame++];
+            buffers[offset++] = frames[nextFrame++];
+            return offset;
+        }
+
+        private boolean hasRemainingChunks() {
+            return nextFrame < frames.length;
         }
-        return byteArrayOutputStream.toByteArray();
     }
 }
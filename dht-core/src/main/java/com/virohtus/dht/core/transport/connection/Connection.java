@@ -7,7 +7,12 @@ import java.io.IOException;
 public interface Connection {
     void listen();
     boolean isListening();
+    void pauseReading();
+    void resumeReading();
     void send(DhtEvent event) throws IOException;
+    boolean isWritable();
+    long getQueuedBytes();
+    void setWriteWatermarks(long lowWatermark, long highWatermark);
     void setConnectionDelegate(ConnectionDelegate connectionDelegate);
     void close();
 }
@@ -5,4 +5,5 @@ import com.virohtus.dht.core.transport.protocol.DhtEvent;
 public interface ConnectionDelegate {
     void dataReceived(DhtEvent data);
     void listenerDisrupted();
+    void writabilityChanged(boolean writable);
 }
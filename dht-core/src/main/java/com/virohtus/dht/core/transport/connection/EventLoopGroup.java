@@ -0,0 +1,159 @@
+package com.virohtus.dht.core.transport.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EventLoopGroup {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventLoopGroup.class);
+    private static final AtomicInteger groupCount = new AtomicInteger(0);
+    private static final ThreadLocal<int[]> handlerDepth = ThreadLocal.withInitial(() -> new int[1]);
+    private final int threadCount;
+    private final ThreadPoolExecutor threadPool;
+    private final AsynchronousChannelGroup channelGroup;
+    private final AtomicInteger busyThreads;
+    private final AtomicInteger peakBusyThreads;
+    private final AtomicLong handledEvents;
+    private final AtomicLong saturatedEvents;
+
+    public EventLoopGroup() throws IOException {
+        this(getDefaultThreadCount());
+    }
+
+    public EventLoopGroup(int threadCount) throws IOException {
+        if(threadCount < 1) {
+            throw new IllegalArgumentException("event loop group needs at least one thread! requested: " + threadCount);
+        }
+        this.threadCount = threadCount;
+        this.busyThreads = new AtomicInteger(0);
+        this.peakBusyThreads = new AtomicInteger(0);
+        this.handledEvents = new AtomicLong(0);
+        this.saturatedEvents = new AtomicLong(0);
+        String namePrefix = "dht-event-loop-" + groupCount.incrementAndGet() + "-";
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        this.threadPool = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.channelGroup = AsynchronousChannelGroup.withThreadPool(threadPool);
+    }
+
+    public static int getDefaultThreadCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public AsynchronousChannelGroup getChannelGroup() {
+        return channelGroup;
+    }
+
+    // wraps a handler so time spent inside it counts towards the group's busy threads
+    public <V, A> CompletionHandler<V, A> instrument(CompletionHandler<V, A> handler) {
+        return new CompletionHandler<V, A>() {
+            @Override
+            public void completed(V result, A attachment) {
+                enter();
+                try {
+                    handler.completed(result, attachment);
+                } finally {
+                    exit();
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, A attachment) {
+                enter();
+                try {
+                    handler.failed(exc, attachment);
+                } finally {
+                    exit();
+                }
+            }
+        };
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public int getLiveThreadCount() {
+        return threadPool.getPoolSize();
+    }
+
+    public int getBusyThreadCount() {
+        return busyThreads.get();
+    }
+
+    public int getPeakBusyThreadCount() {
+        return peakBusyThreads.get();
+    }
+
+    public double getSaturation() {
+        return (double) busyThreads.get() / threadCount;
+    }
+
+    public long getHandledEventCount() {
+        return handledEvents.get();
+    }
+
+    // events that started while every other loop thread was already busy
+    public long getSaturatedEventCount() {
+        return saturatedEvents.get();
+    }
+
+    public boolean isShutdown() {
+        return channelGroup.isShutdown();
+    }
+
+    public void shutdown(long timeout, TimeUnit unit) {
+        try {
+            channelGroup.shutdownNow();
+            if(!channelGroup.awaitTermination(timeout, unit)) {
+                LOG.warn("event loop group did not terminate within " + timeout + " " + unit);
+            }
+        } catch (IOException e) {
+            LOG.warn("io error occurred when shutting down event loop group: " + e);
+        } catch (InterruptedException e) {
+            LOG.warn("wait for event loop group shutdown interrupted!");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("threads: %d busy: %d peak: %d handled: %d saturated: %d",
+                threadCount, getBusyThreadCount(), getPeakBusyThreadCount(), getHandledEventCount(), getSaturatedEventCount());
+    }
+
+    // handlers may complete inline inside another handler, only the outermost one marks the thread busy
+    private void enter() {
+        int[] depth = handlerDepth.get();
+        if(depth[0]++ > 0) {
+            return;
+        }
+        handledEvents.incrementAndGet();
+        int busy = busyThreads.incrementAndGet();
+        if(busy >= threadCount) {
+            saturatedEvents.incrementAndGet();
+        }
+        peakBusyThreads.accumulateAndGet(busy, Math::max);
+    }
+
+    private void exit() {
+        int[] depth = handlerDepth.get();
+        if(--depth[0] > 0) {
+            return;
+        }
+        busyThreads.decrementAndGet();
+    }
+}
@@ -0,0 +1,73 @@
+package com.virohtus.dht.core.transport.connection;
+
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.transport.protocol.Headers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class FrameDecoder {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int MAX_RETAINED_BUFFER_SIZE = 65536;
+    private final int defaultBufferSize;
+    private ByteBuffer buffer;
+
+    public FrameDecoder() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public FrameDecoder(int defaultBufferSize) {
+        this.defaultBufferSize = defaultBufferSize;
+        this.buffer = ByteBuffer.allocate(defaultBufferSize);
+    }
+
+    // buffer is kept in fill mode: everything between 0 and position is received but not yet decoded
+    public ByteBuffer getReadBuffer() throws IOException {
+        int pending = pendingFrameSize();
+        if(pending > buffer.capacity()) {
+            resize(pending);
+        } else if(!buffer.hasRemaining()) {
+            resize(buffer.capacity() + 1);
+        }
+        return buffer;
+    }
+
+    public DhtEvent nextFrame() throws IOException {
+        int frameSize = pendingFrameSize();
+        if(frameSize < 0 || buffer.position() < frameSize) {
+            return null;
+        }
+        buffer.flip();
+        Headers headers = Headers.deserialize(buffer);
+        byte[] payload = new byte[headers.getPayloadLength()];
+        buffer.get(payload);
+        buffer.compact();
+        if(buffer.position() == 0 && buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffer = ByteBuffer.allocate(defaultBufferSize);
+        }
+        return new DhtEvent(headers, payload);
+    }
+
+    private int pendingFrameSize() throws IOException {
+        if(buffer.position() < DhtProtocol.HEADER_SIZE) {
+            return -1;
+        }
+        int payloadLength = Headers.peekPayloadLength(buffer, 0);
+        // senders split messages into chunks, a larger frame is never legitimate and is not buffered
+        if(payloadLength < 0 || payloadLength > DhtProtocol.MAX_CHUNK_SIZE) {
+            throw new IOException("invalid payload length: " + payloadLength);
+        }
+        return DhtProtocol.HEADER_SIZE + payloadLength;
+    }
+
+    private void resize(int minimumCapacity) {
+        int capacity = buffer.capacity() > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : buffer.capacity() * 2;
+        capacity = Math.max(capacity, minimumCapacity);
+        ByteBuffer resized = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        resized.put(buffer);
+        buffer = resized;
+    }
+}
@@ -0,0 +1,64 @@
+package com.virohtus.dht.core.transport.connection;
+
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.transport.protocol.Headers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StreamAssembler {
+
+    private final Map<Integer, ByteArrayOutputStream> partialMessages;
+    private final int maxPartialBytes;
+    private int partialBytes;
+
+    public StreamAssembler() {
+        this(DhtProtocol.MAX_PARTIAL_BYTES);
+    }
+
+    // bounds the bytes buffered across every stream of one connection
+    public StreamAssembler(int maxPartialBytes) {
+        this.partialMessages = new HashMap<>();
+        this.maxPartialBytes = maxPartialBytes;
+    }
+
+    // chunks of different streams may interleave, chunks within a stream always arrive in order
+    public DhtEvent accept(DhtEvent frame) throws IOException {
+        Headers headers = frame.getHeaders();
+        int streamId = headers.getStreamId();
+        ByteArrayOutputStream partial = partialMessages.get(streamId);
+        if(partial == null) {
+            if(!headers.hasFlag(DhtProtocol.FLAG_MORE_CHUNKS)) {
+                return frame;
+            }
+            partial = new ByteArrayOutputStream(DhtProtocol.MAX_CHUNK_SIZE * 2);
+            partialMessages.put(streamId, partial);
+        }
+        if(partial.size() + frame.getPayload().length > DhtProtocol.MAX_MESSAGE_SIZE) {
+            throw new IOException("message on stream " + streamId + " exceeds " + DhtProtocol.MAX_MESSAGE_SIZE + " bytes");
+        }
+        if(partialBytes + frame.getPayload().length > maxPartialBytes) {
+            throw new IOException("partial messages exceed " + maxPartialBytes + " bytes");
+        }
+        partial.write(frame.getPayload());
+        partialBytes += frame.getPayload().length;
+        if(headers.hasFlag(DhtProtocol.FLAG_MORE_CHUNKS)) {
+            return null;
+        }
+        partialMessages.remove(streamId);
+        partialBytes -= partial.size();
+        byte[] payload = partial.toByteArray();
+        return new DhtEvent(new Headers(headers.getVersion(), payload.length, headers.getFlags(), streamId), payload);
+    }
+
+    public int getPartialStreamCount() {
+        return partialMessages.size();
+    }
+
+    public int getPartialBytes() {
+        return partialBytes;
+    }
+}
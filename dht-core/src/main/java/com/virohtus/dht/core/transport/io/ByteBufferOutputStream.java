@@ -0,0 +1,37 @@
+package com.virohtus.dht.core.transport.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+public class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureRemaining(1);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureRemaining(len);
+        buffer.put(b, off, len);
+    }
+
+    // the buffer is sized up front, running past it means the size was computed wrong
+    private void ensureRemaining(int length) throws IOException {
+        if(buffer.remaining() < length) {
+            throw new IOException("buffer overflow! needed: " + length + " remaining: " + buffer.remaining());
+        }
+    }
+}
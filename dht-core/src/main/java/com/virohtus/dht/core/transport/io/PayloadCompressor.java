@@ -0,0 +1,66 @@
+package com.virohtus.dht.core.transport.io;
+
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class PayloadCompressor {
+
+    private static final int LENGTH_PREFIX_SIZE = 4;
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    // returns null when compressing would not make the payload smaller
+    public byte[] compress(byte[] payload) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+        byte[] compressed = new byte[payload.length];
+        ByteBuffer.wrap(compressed).putInt(payload.length);
+        int length = LENGTH_PREFIX_SIZE;
+        while(!deflater.finished() && length < compressed.length) {
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        if(!deflater.finished()) {
+            return null;
+        }
+        return Arrays.copyOf(compressed, length);
+    }
+
+    public byte[] decompress(byte[] compressed) throws IOException {
+        if(compressed.length < LENGTH_PREFIX_SIZE) {
+            throw new IOException("compressed payload too short: " + compressed.length);
+        }
+        int originalLength = ByteBuffer.wrap(compressed).getInt();
+        // the length comes from the peer, it is checked before anything is allocated for it
+        if(originalLength < 0 || originalLength > DhtProtocol.MAX_MESSAGE_SIZE) {
+            throw new IOException("invalid decompressed length: " + originalLength);
+        }
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(compressed, LENGTH_PREFIX_SIZE, compressed.length - LENGTH_PREFIX_SIZE);
+        byte[] payload = new byte[originalLength];
+        try {
+            int length = 0;
+            while(length < originalLength) {
+                int inflated = inflater.inflate(payload, length, originalLength - length);
+                if(inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if(length != originalLength) {
+                throw new IOException("compressed payload is corrupt");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
+        return payload;
+    }
+}
@@ -16,7 +16,11 @@ public class DhtEvent {
     }
 
     public DhtEvent(byte[] payload) {
-        this.headers = new Headers(DhtProtocol.PROTOCOL_VERSION, payload.length);
+        this(DhtProtocol.CONTROL_STREAM, payload);
+    }
+
+    public DhtEvent(int streamId, byte[] payload) {
+        this.headers = new Headers(DhtProtocol.PROTOCOL_VERSION, payload.length, 0, streamId);
         this.payload = payload;
     }
 
@@ -5,11 +5,36 @@ public interface DhtProtocol {
     String HOSTNAME = "localhost";
     int PROTOCOL_VERSION = 1;
     String STRING_ENCODING = "UTF-8";
-    int HEADER_SIZE = 8;
+    int HEADER_SIZE = 16;
     int REQUEST_TIMEOUT = 10000;
     int NETWORK_TIMEOUT = 30000;
     int GLOBAL_KEYSPACE = 500;
     int STABILIZATION_PERIOD = 5000;
+    int ADDRESS_CACHE_SIZE = 1024;
+    long ADDRESS_CACHE_TTL = 60000;
+    long ADDRESS_CACHE_NEGATIVE_TTL = 5000;
+    long WRITE_LOW_WATERMARK = 256 * 1024;
+    long WRITE_HIGH_WATERMARK = 1024 * 1024;
+    int COMPRESSION_THRESHOLD = 1024;
+    int MAX_CHUNK_SIZE = 16 * 1024;
+    int MAX_MESSAGE_SIZE = 64 * 1024 * 1024;
+    int MAX_PARTIAL_BYTES = 64 * 1024 * 1024;
+    int MAX_PENDING_REQUESTS = 4096;
+    int MAX_ACTION_TYPE = 1 << 16;
+    long BATCH_LINGER = 2;
+    int MAX_BATCH_SIZE = 64;
+    int DISPATCH_BUFFER_SIZE = 16384;
+    int DISPATCH_QUEUE_CAPACITY = 16384;
+    int DISPATCH_CONTROL_RESERVE = 1024;
+    int DISPATCH_STARVATION_LIMIT = 16;
+
+    int FLAG_COMPRESSED = 1;
+    int FLAG_ACCEPTS_COMPRESSION = 1 << 1;
+    int FLAG_MORE_CHUNKS = 1 << 2;
+
+    int CONTROL_STREAM = 0;
+    int BULK_STREAM = 1;
+    int STREAM_COUNT = 2;
 
 
     int JOIN_NETWORK_REQUEST = 1;
@@ -24,4 +49,8 @@ public interface DhtProtocol {
     int GET_NODE_RESPONSE = 9;
 
     int SET_PREDECESSOR = 10;
+
+    int ACTION_BATCH = 11;
+
+    int OVERLOADED_RESPONSE = 12;
 }
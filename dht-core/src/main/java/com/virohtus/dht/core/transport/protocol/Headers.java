@@ -1,32 +1,60 @@
 package com.virohtus.dht.core.transport.protocol;
 
-import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 public class Headers {
     private int version;
     private int payloadLength;
+    private int flags;
+    private int streamId;
 
     public Headers(int version, int payloadLength) {
+        this(version, payloadLength, 0);
+    }
+
+    public Headers(int version, int payloadLength, int flags) {
+        this(version, payloadLength, flags, DhtProtocol.CONTROL_STREAM);
+    }
+
+    public Headers(int version, int payloadLength, int flags, int streamId) {
         this.version = version;
         this.payloadLength = payloadLength;
+        this.flags = flags;
+        this.streamId = streamId;
     }
 
     public static Headers deserialize(byte[] data) throws IOException {
-        try (
-            ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(data);
-            DhtInputStream inputStream = new DhtInputStream(byteArrayInputStream)
-        ) {
-            int version = inputStream.readInt();
-            int payloadLength = inputStream.readInt();
-            return new Headers(version, payloadLength);
+        try {
+            return deserialize(ByteBuffer.wrap(data));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("not enough data for headers: " + data.length);
         }
     }
 
+    public static Headers deserialize(ByteBuffer buffer) {
+        int version = buffer.getInt();
+        int payloadLength = buffer.getInt();
+        int flags = buffer.getInt();
+        int streamId = buffer.getInt();
+        return new Headers(version, payloadLength, flags, streamId);
+    }
+
+    public static int peekPayloadLength(ByteBuffer buffer, int headerStart) {
+        return buffer.getInt(headerStart + 4);
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(version);
+        buffer.putInt(payloadLength);
+        buffer.putInt(flags);
+        buffer.putInt(streamId);
+    }
+
     public byte[] getBytes() throws IOException {
         try (
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
@@ -34,6 +62,8 @@ public class Headers {
         ) {
             outputStream.writeInt(version);
             outputStream.writeInt(payloadLength);
+            outputStream.writeInt(flags);
+            outputStream.writeInt(streamId);
             outputStream.flush();
             return byteArrayOutputStream.toByteArray();
         }
@@ -47,6 +77,18 @@ public class Headers {
         return payloadLength;
     }
 
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getStreamId() {
+        return streamId;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -55,7 +97,9 @@ public class Headers {
         Headers headers = (Headers) o;
 
         if (version != headers.version) return false;
-        return payloadLength == headers.payloadLength;
+        if (payloadLength != headers.payloadLength) return false;
+        if (flags != headers.flags) return false;
+        return streamId == headers.streamId;
 
     }
 
@@ -63,6 +107,8 @@ public class Headers {
     public int hashCode() {
         int result = version;
         result = 31 * result + payloadLength;
+        result = 31 * result + flags;
+        result = 31 * result + streamId;
         return result;
     }
 }
@@ -1,63 +1,47 @@
 package com.virohtus.dht.core.transport.server;
 
 import com.virohtus.dht.core.transport.connection.AsyncConnection;
+import com.virohtus.dht.core.transport.connection.EventLoopGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.SocketAddress;
-import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AsyncServer implements Server {
 
     private static final Logger LOG = LoggerFactory.getLogger(AsyncServer.class);
     private final ServerDelegate serverDelegate;
     private final ExecutorService executorService;
+    private final EventLoopGroup eventLoopGroup;
     private final AsynchronousServerSocketChannel serverSocketChannel;
-    private Future listener;
+    private final CompletionHandler<AsynchronousSocketChannel, Void> acceptHandler;
+    private volatile CompletableFuture<Void> listener;
 
-    public AsyncServer(ServerDelegate serverDelegate, ExecutorService executorService, SocketAddress socketAddress) throws IOException {
+    public AsyncServer(ServerDelegate serverDelegate, ExecutorService executorService,
+                       EventLoopGroup eventLoopGroup, SocketAddress socketAddress) throws IOException {
         this.serverDelegate = serverDelegate;
         this.executorService = executorService;
-        AsynchronousChannelGroup group = AsynchronousChannelGroup.withCachedThreadPool(executorService, 3);
-        serverSocketChannel = AsynchronousServerSocketChannel.open(group).bind(socketAddress);
+        this.eventLoopGroup = eventLoopGroup;
+        this.acceptHandler = eventLoopGroup.instrument(new AcceptHandler());
+        serverSocketChannel = AsynchronousServerSocketChannel.open(eventLoopGroup.getChannelGroup()).bind(socketAddress);
     }
 
     @Override
     public void listen() {
-        final AtomicBoolean started = new AtomicBoolean(false);
-        listener = executorService.submit(() -> {
-            synchronized (started) {
-                started.set(true);
-                started.notifyAll();
-            }
-            try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    AsynchronousSocketChannel socketChannel = serverSocketChannel.accept().get();
-                    serverDelegate.connectionOpened(new AsyncConnection(executorService, socketChannel));
-                }
-            } finally {
-                serverDelegate.serverShutdown();
-            }
-            return CompletableFuture.completedFuture(null);
-        });
-
-        synchronized (started) {
-            while(!started.get()) {
-                try {
-                    started.wait();
-                } catch (InterruptedException e) {
-                    LOG.error("wait for server startup interrupted!");
-                }
-            }
+        if(isListening()) {
+            return;
         }
+        listener = new CompletableFuture<>();
+        accept();
     }
 
     @Override
@@ -65,7 +49,6 @@ public class AsyncServer implements Server {
         if(!isListening()) {
             return;
         }
-//        listener.cancel(true);
         try {
             serverSocketChannel.close();
             listener.get();
@@ -80,11 +63,41 @@ public class AsyncServer implements Server {
 
     @Override
     public boolean isListening() {
-        return listener != null && !listener.isCancelled() && !listener.isDone();
+        return listener != null && !listener.isDone();
     }
 
     @Override
     public SocketAddress getSocketAddress() throws IOException {
         return serverSocketChannel.getLocalAddress();
     }
+
+    private void accept() {
+        try {
+            serverSocketChannel.accept(null, acceptHandler);
+        } catch (Exception e) {
+            acceptHandler.failed(e, null);
+        }
+    }
+
+    // the delegate may block on the new peer, so it is handed off to keep the event loop free
+    private class AcceptHandler implements CompletionHandler<AsynchronousSocketChannel, Void> {
+
+        @Override
+        public void completed(AsynchronousSocketChannel socketChannel, Void attachment) {
+            accept();
+            executorService.execute(() -> serverDelegate.connectionOpened(new AsyncConnection(socketChannel, eventLoopGroup)));
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            if(!(exc instanceof AsynchronousCloseException) && !(exc instanceof ClosedChannelException)) {
+                LOG.warn("server stopped accepting connections: " + exc);
+            }
+            try {
+                serverDelegate.serverShutdown();
+            } finally {
+                listener.complete(null);
+            }
+        }
+    }
 }
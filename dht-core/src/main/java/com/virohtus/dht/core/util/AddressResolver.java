@@ -0,0 +1,95 @@
+package com.virohtus.dht.core.util;
+
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class AddressResolver {
+
+    private static final AddressResolver instance = new AddressResolver(DhtProtocol.ADDRESS_CACHE_SIZE,
+            DhtProtocol.ADDRESS_CACHE_TTL, DhtProtocol.ADDRESS_CACHE_NEGATIVE_TTL, InetAddress::getByName, System::nanoTime);
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Lookup lookup;
+    private final LongSupplier clock;
+    private final Map<String, Entry> cache;
+
+    public AddressResolver(int maxEntries, long ttl, long negativeTtl, Lookup lookup, LongSupplier clock) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtl);
+        this.lookup = lookup;
+        this.clock = clock;
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static AddressResolver getInstance() {
+        return instance;
+    }
+
+    // failed lookups are kept for the shorter negative ttl so a dead name does not cost a lookup per encode
+    public InetAddress resolve(String hostname) throws UnknownHostException {
+        long now = clock.getAsLong();
+        synchronized (cache) {
+            Entry entry = cache.get(hostname);
+            if(entry != null && now - entry.resolvedAt < entry.ttlNanos) {
+                if(entry.address == null) {
+                    throw new UnknownHostException(hostname);
+                }
+                return entry.address;
+            }
+        }
+        InetAddress address = null;
+        try {
+            address = lookup.lookup(hostname);
+            return address;
+        } finally {
+            synchronized (cache) {
+                cache.put(hostname, new Entry(address, now, address != null ? ttlNanos : negativeTtlNanos));
+            }
+        }
+    }
+
+    // wildcard and unresolved addresses are replaced by something a remote node can connect to
+    public InetSocketAddress resolve(InetSocketAddress socketAddress) throws UnknownHostException {
+        if(socketAddress.isUnresolved()) {
+            return new InetSocketAddress(resolve(socketAddress.getHostString()), socketAddress.getPort());
+        }
+        if(socketAddress.getAddress().isAnyLocalAddress()) {
+            return new InetSocketAddress(resolve(DhtProtocol.HOSTNAME), socketAddress.getPort());
+        }
+        return socketAddress;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public interface Lookup {
+        InetAddress lookup(String hostname) throws UnknownHostException;
+    }
+
+    private static class Entry {
+        private final InetAddress address;
+        private final long resolvedAt;
+        private final long ttlNanos;
+
+        private Entry(InetAddress address, long resolvedAt, long ttlNanos) {
+            this.address = address;
+            this.resolvedAt = resolvedAt;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
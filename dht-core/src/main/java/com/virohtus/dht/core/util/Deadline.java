@@ -0,0 +1,69 @@
+package com.virohtus.dht.core.util;
+
+import com.virohtus.dht.core.action.Wireable;
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// sent as the remaining budget rather than a timestamp so nodes do not need synchronized clocks
+public class Deadline implements Wireable {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final long MAX_BUDGET = TimeUnit.NANOSECONDS.toMillis(Long.MAX_VALUE / 2);
+    public static final Deadline NONE = new Deadline(NO_DEADLINE);
+    private long expiresAt;
+
+    private Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Deadline(DhtInputStream inputStream) throws IOException {
+        fromWire(inputStream);
+    }
+
+    public static Deadline after(long millis) {
+        if(millis >= MAX_BUDGET) {
+            return NONE;
+        }
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0)));
+    }
+
+    public boolean isNone() {
+        return expiresAt == NO_DEADLINE;
+    }
+
+    public long remaining() {
+        if(isNone()) {
+            return NO_DEADLINE;
+        }
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime()), 0);
+    }
+
+    public boolean isExpired() {
+        return !isNone() && expiresAt - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public int getWireSize() {
+        return Long.BYTES;
+    }
+
+    // whatever was spent on this node is gone from the budget the next hop receives
+    @Override
+    public void toWire(DhtOutputStream outputStream) throws IOException {
+        outputStream.writeLong(remaining());
+    }
+
+    @Override
+    public void fromWire(DhtInputStream inputStream) throws IOException {
+        long remaining = inputStream.readLong();
+        expiresAt = remaining == NO_DEADLINE ? NO_DEADLINE : after(remaining).expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return isNone() ? "none" : remaining() + "ms";
+    }
+}
@@ -0,0 +1,51 @@
+package com.virohtus.dht.core.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class DeadlineTimer {
+
+    private static final DeadlineTimer instance = new DeadlineTimer();
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public DeadlineTimer() {
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "dht-deadline-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // most deadlines are cancelled by a response, do not keep them queued until they would have fired
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public static DeadlineTimer getInstance() {
+        return instance;
+    }
+
+    // fails the future with a TimeoutException unless it completes first, onTimeout runs before the failure
+    public <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, long timeout, Runnable onTimeout) {
+        ScheduledFuture<?> deadline = scheduler.schedule(() -> {
+            if(!future.isDone()) {
+                onTimeout.run();
+                future.completeExceptionally(new TimeoutException("no completion within " + timeout + "ms"));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, exc) -> deadline.cancel(false));
+        return future;
+    }
+
+    public ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public int getPendingCount() {
+        return scheduler.getQueue().size();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,98 @@
+package com.virohtus.dht.core.util;
+
+import com.virohtus.dht.core.action.Wireable;
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+
+import java.io.IOException;
+
+public class Id implements Wireable, Comparable<Id> {
+
+    public static final int SIZE = 16;
+    private static final int HEX_LENGTH = SIZE * 2;
+    private long mostSignificantBits;
+    private long leastSignificantBits;
+
+    public Id(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    public Id(DhtInputStream inputStream) throws IOException {
+        fromWire(inputStream);
+    }
+
+    public static Id fromString(String hex) {
+        if(hex.length() != HEX_LENGTH) {
+            throw new IllegalArgumentException("expected " + HEX_LENGTH + " hex characters: " + hex);
+        }
+        return new Id(Long.parseUnsignedLong(hex.substring(0, HEX_LENGTH / 2), 16),
+                Long.parseUnsignedLong(hex.substring(HEX_LENGTH / 2), 16));
+    }
+
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    @Override
+    public int getWireSize() throws IOException {
+        return SIZE;
+    }
+
+    @Override
+    public void toWire(DhtOutputStream outputStream) throws IOException {
+        outputStream.writeLong(mostSignificantBits);
+        outputStream.writeLong(leastSignificantBits);
+    }
+
+    @Override
+    public void fromWire(DhtInputStream inputStream) throws IOException {
+        mostSignificantBits = inputStream.readLong();
+        leastSignificantBits = inputStream.readLong();
+    }
+
+    @Override
+    public int compareTo(Id other) {
+        int result = Long.compareUnsigned(mostSignificantBits, other.mostSignificantBits);
+        if(result != 0) {
+            return result;
+        }
+        return Long.compareUnsigned(leastSignificantBits, other.leastSignificantBits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Id id = (Id) o;
+
+        if (mostSignificantBits != id.mostSignificantBits) return false;
+        return leastSignificantBits == id.leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = mostSignificantBits ^ leastSignificantBits;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        char[] hex = new char[HEX_LENGTH];
+        writeHex(mostSignificantBits, hex, 0);
+        writeHex(leastSignificantBits, hex, HEX_LENGTH / 2);
+        return new String(hex);
+    }
+
+    private static void writeHex(long bits, char[] hex, int offset) {
+        for(int i = HEX_LENGTH / 2 - 1; i >= 0; i--) {
+            hex[offset + i] = Character.forDigit((int) (bits & 0xf), 16);
+            bits >>>= 4;
+        }
+    }
+}
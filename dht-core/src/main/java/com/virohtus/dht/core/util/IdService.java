@@ -4,7 +4,8 @@ import java.util.UUID;
 
 public class IdService {
 
-    public String generateId() {
-        return UUID.randomUUID().toString().replace("-", "");
+    public Id generateId() {
+        UUID uuid = UUID.randomUUID();
+        return new Id(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
     }
 }
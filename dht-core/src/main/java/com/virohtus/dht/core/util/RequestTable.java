@@ -0,0 +1,82 @@
+package com.virohtus.dht.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// lock free table for sequentially assigned long keys, key k always lives in slot k & mask
+public class RequestTable<V> {
+
+    private final AtomicReferenceArray<Entry<V>> slots;
+    private final int mask;
+    private final AtomicInteger size;
+
+    public RequestTable(int capacity) {
+        if(capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two! requested: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.size = new AtomicInteger(0);
+    }
+
+    // fails only while the key one full table width older is still outstanding
+    public boolean register(long key, V value) {
+        if(value == null) {
+            throw new NullPointerException("null values are not supported");
+        }
+        if(!slots.compareAndSet(index(key), null, new Entry<>(key, value))) {
+            return false;
+        }
+        size.incrementAndGet();
+        return true;
+    }
+
+    public V get(long key) {
+        Entry<V> entry = slots.get(index(key));
+        return entry != null && entry.key == key ? entry.value : null;
+    }
+
+    // exactly one caller wins the value when a response and a timeout race
+    public V remove(long key) {
+        int index = index(key);
+        Entry<V> entry = slots.get(index);
+        if(entry == null || entry.key != key || !slots.compareAndSet(index, entry, null)) {
+            return null;
+        }
+        size.decrementAndGet();
+        return entry.value;
+    }
+
+    public void drain(Consumer<V> consumer) {
+        for(int i = 0; i < slots.length(); i++) {
+            Entry<V> entry = slots.getAndSet(i, null);
+            if(entry != null) {
+                size.decrementAndGet();
+                consumer.accept(entry.value);
+            }
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private int index(long key) {
+        return (int) (key & mask);
+    }
+
+    private static class Entry<V> {
+        private final long key;
+        private final V value;
+
+        private Entry(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
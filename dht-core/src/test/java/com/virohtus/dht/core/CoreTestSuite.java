@@ -2,7 +2,7 @@ package com.virohtus.dht.core;
 
 import com.virohtus.dht.core.action.ActionTestSuite;
 import com.virohtus.dht.core.engine.EngineTestSuite;
-import com.virohtus.dht.core.network.peer.PeerTest;
+import com.virohtus.dht.core.network.NetworkTestSuite;
 import com.virohtus.dht.core.transport.TransportTestSuite;
 import com.virohtus.dht.core.util.UtilTestSuite;
 import org.junit.runner.RunWith;
@@ -12,7 +12,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
         ActionTestSuite.class,
         EngineTestSuite.class,
-        PeerTest.class,
+        NetworkTestSuite.class,
         TransportTestSuite.class,
         UtilTestSuite.class
 })
@@ -0,0 +1,39 @@
+package com.virohtus.dht.core.action;
+
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
+import com.virohtus.dht.core.engine.action.network.GetNodeRequest;
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ActionBatchTest {
+
+    private final ActionFactory actionFactory = ActionFactory.getInstance();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        GetNodeIdentityRequest first = new GetNodeIdentityRequest();
+        first.setRequestId(1);
+        GetNodeRequest second = new GetNodeRequest();
+        second.setRequestId(2);
+        ActionBatch batch = new ActionBatch(DhtProtocol.CONTROL_STREAM, Arrays.asList(first, second));
+        byte[] data = batch.serialize();
+        Assert.assertEquals(batch.getWireSize(), data.length);
+
+        ActionBatch received = (ActionBatch) actionFactory.createTransportableAction(new DhtEvent(data));
+        Assert.assertEquals(2, received.getActions().size());
+        Assert.assertEquals(first, received.getActions().get(0));
+        Assert.assertEquals(2, ((GetNodeRequest) received.getActions().get(1)).getRequestId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNestedBatchRejected() {
+        ActionBatch inner = new ActionBatch(DhtProtocol.CONTROL_STREAM, Collections.singletonList(new GetNodeRequest()));
+        new ActionBatch(DhtProtocol.CONTROL_STREAM, Collections.singletonList(inner));
+    }
+}
@@ -1,14 +1,33 @@
 package com.virohtus.dht.core.action;
 
+import com.virohtus.dht.core.engine.action.network.SetPredecessor;
+import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
 
 public class ActionFactoryTest {
 
+    private static final int CUSTOM_TYPE = 1000;
     private final ActionFactory actionFactory = ActionFactory.getInstance();
 
+    public static class CustomAction extends TransportableAction {
+
+        public CustomAction() {}
+
+        public CustomAction(DhtInputStream inputStream) throws IOException {
+            super(inputStream);
+        }
+
+        @Override
+        public int getType() {
+            return CUSTOM_TYPE;
+        }
+    }
+
     @Test(expected = IOException.class)
     public void testCreateUnsupportedAction() throws IOException {
         byte[] actionData = {0, 0, 0, -1};
@@ -21,4 +40,34 @@ public class ActionFactoryTest {
         DhtEvent dhtEvent = new DhtEvent(new byte[0]);
         actionFactory.createTransportableAction(dhtEvent);
     }
+
+    @Test
+    public void testRegisterCustomAction() throws IOException {
+        if(!actionFactory.isRegistered(CUSTOM_TYPE)) {
+            actionFactory.register(CUSTOM_TYPE, CustomAction::new);
+        }
+        Assert.assertTrue(actionFactory.isRegistered(CUSTOM_TYPE));
+        CustomAction action = new CustomAction();
+        Assert.assertEquals(action, actionFactory.createTransportableAction(new DhtEvent(action.serialize())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterDuplicateType() {
+        actionFactory.register(DhtProtocol.SET_PREDECESSOR, SetPredecessor::new);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterNegativeType() {
+        actionFactory.register(-1, CustomAction::new);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterTypeAboveMaximum() {
+        actionFactory.register(DhtProtocol.MAX_ACTION_TYPE + 1, CustomAction::new);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterHugeType() {
+        actionFactory.register(Integer.MAX_VALUE, CustomAction::new);
+    }
 }
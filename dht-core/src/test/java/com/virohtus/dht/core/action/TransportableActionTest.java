@@ -1,13 +1,23 @@
 package com.virohtus.dht.core.action;
 
 import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
+import com.virohtus.dht.core.engine.action.network.GetNodeResponse;
+import com.virohtus.dht.core.network.FingerTable;
+import com.virohtus.dht.core.network.Keyspace;
+import com.virohtus.dht.core.network.Node;
+import com.virohtus.dht.core.network.NodeIdentity;
 import com.virohtus.dht.core.transport.io.DhtInputStream;
 import com.virohtus.dht.core.transport.io.DhtOutputStream;
 import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.util.Id;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class TransportableActionTest {
 
@@ -38,6 +48,30 @@ public class TransportableActionTest {
         Assert.assertEquals(request, reserialized);
     }
 
+    @Test
+    public void testWireSizeMatchesSerialized() throws IOException {
+        InetSocketAddress socketAddress = new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, 0, 0, 1}), 4000);
+        FingerTable fingerTable = new FingerTable()
+                .withSuccessor(new Node(new NodeIdentity(new Id(0, 2), socketAddress), new Keyspace(), new FingerTable()))
+                .withPredecessor(new Node(new NodeIdentity(new Id(0, 3), socketAddress), new Keyspace(), new FingerTable()));
+        GetNodeResponse response = new GetNodeResponse(7, new Node(new NodeIdentity(new Id(0, 1), socketAddress), new Keyspace(), fingerTable));
+        byte[] data = response.serialize();
+        Assert.assertEquals(response.getWireSize(), data.length);
+        GetNodeResponse received = (GetNodeResponse) actionFactory.createTransportableAction(new DhtEvent(data));
+        Assert.assertEquals(7, received.getRequestId());
+        Assert.assertEquals(new Id(0, 3), received.getNode().getFingerTable().getPredecessor().getNodeIdentity().getNodeId());
+    }
+
+    @Test
+    public void testSerializeIntoBuffer() throws IOException {
+        GetNodeIdentityRequest request = new GetNodeIdentityRequest();
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + request.getWireSize());
+        buffer.putInt(99);
+        request.serialize(buffer);
+        Assert.assertFalse(buffer.hasRemaining());
+        Assert.assertArrayEquals(request.serialize(), Arrays.copyOfRange(buffer.array(), Integer.BYTES, buffer.capacity()));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testDeserializeIllegalType() throws IOException {
         PipedOutputStream pipedOutputStream = new PipedOutputStream();
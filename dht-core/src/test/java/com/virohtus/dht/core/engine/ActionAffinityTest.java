@@ -0,0 +1,63 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.engine.action.network.GetNetwork;
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
+import com.virohtus.dht.core.engine.action.network.GetNodeRequest;
+import com.virohtus.dht.core.engine.action.network.JoinNetworkRequest;
+import com.virohtus.dht.core.engine.action.network.OverloadedResponse;
+import com.virohtus.dht.core.engine.action.network.SetPredecessor;
+import com.virohtus.dht.core.engine.action.peer.PeerConnected;
+import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.engine.action.peer.PeerWritabilityChanged;
+import com.virohtus.dht.core.network.FingerTable;
+import com.virohtus.dht.core.network.Keyspace;
+import com.virohtus.dht.core.network.Network;
+import com.virohtus.dht.core.network.Node;
+import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.network.peer.Peer;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.Id;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ActionAffinityTest {
+
+    @Mock private Peer peer;
+    private Node node;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(peer.getId()).thenReturn(new Id(0, 42));
+        node = new Node(new NodeIdentity(new Id(0, 123), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+    }
+
+    @Test
+    public void testPeerTrafficSharesRingKey() throws Exception {
+        for (TransportableAction action : Arrays.asList(new JoinNetworkRequest(node), new GetNodeIdentityRequest(),
+                new GetNetwork(new Network(Collections.singletonList(node))), new GetNodeRequest(), new SetPredecessor(node))) {
+            action.setSourcePeer(peer);
+            Assert.assertEquals(ActionAffinity.RING_KEY, ActionAffinity.keyOf(action));
+        }
+        Assert.assertEquals(ActionAffinity.RING_KEY, ActionAffinity.keyOf(new PeerConnected(peer)));
+        Assert.assertEquals(ActionAffinity.RING_KEY, ActionAffinity.keyOf(new PeerDisconnected(peer)));
+    }
+
+    @Test
+    public void testOtherActionsSpread() {
+        Assert.assertEquals(peer.getId().hashCode(), ActionAffinity.keyOf(new PeerWritabilityChanged(peer, false)));
+        OverloadedResponse response = new OverloadedResponse(7);
+        Assert.assertEquals(DhtProtocol.OVERLOADED_RESPONSE, ActionAffinity.keyOf(response));
+        response.setSourcePeer(peer);
+        Assert.assertEquals(peer.getId().hashCode(), ActionAffinity.keyOf(response));
+    }
+}
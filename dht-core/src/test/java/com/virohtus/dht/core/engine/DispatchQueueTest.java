@@ -0,0 +1,236 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.engine.action.network.GetNetwork;
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
+import com.virohtus.dht.core.engine.action.network.GetNodeRequest;
+import com.virohtus.dht.core.engine.action.network.OverloadedResponse;
+import com.virohtus.dht.core.engine.action.network.SetPredecessor;
+import com.virohtus.dht.core.engine.action.peer.PeerConnected;
+import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.network.FingerTable;
+import com.virohtus.dht.core.network.Keyspace;
+import com.virohtus.dht.core.network.Network;
+import com.virohtus.dht.core.network.Node;
+import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.network.peer.Peer;
+import com.virohtus.dht.core.util.Id;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class DispatchQueueTest {
+
+    @Mock private Peer peer;
+    private Node node;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        node = new Node(new NodeIdentity(new Id(0, 123), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+    }
+
+    @Test
+    public void testPriorities() throws IOException {
+        Assert.assertEquals(ActionPriority.CONTROL, ActionPriority.of(new Action() {}));
+        Assert.assertEquals(ActionPriority.NORMAL, ActionPriority.of(new PeerConnected(peer)));
+        Assert.assertEquals(ActionPriority.NORMAL, ActionPriority.of(new PeerDisconnected(peer)));
+        Assert.assertEquals(ActionPriority.CONTROL, ActionPriority.of(new SetPredecessor(node)));
+        Assert.assertEquals(ActionPriority.NORMAL, ActionPriority.of(new GetNodeRequest()));
+        Assert.assertEquals(ActionPriority.BULK, ActionPriority.of(new GetNetwork(new Network(Collections.singletonList(node)))));
+    }
+
+    @Test
+    public void testFifoWithinLane() throws InterruptedException {
+        DispatchQueue dispatchQueue = new DispatchQueue(4, OverloadPolicy.REJECT);
+        Action first = new GetNodeRequest();
+        Action second = new GetNodeRequest();
+        Assert.assertTrue(dispatchQueue.put(first));
+        Assert.assertTrue(dispatchQueue.put(second));
+        Assert.assertEquals(2, dispatchQueue.size());
+        Assert.assertSame(first, dispatchQueue.take());
+        Assert.assertSame(second, dispatchQueue.take());
+        Assert.assertTrue(dispatchQueue.isEmpty());
+    }
+
+    @Test
+    public void testControlServedFirst() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(8, OverloadPolicy.REJECT);
+        Action bulk = new GetNetwork(new Network(Collections.singletonList(node)));
+        Action normal = new GetNodeRequest();
+        Action control = new SetPredecessor(node);
+        dispatchQueue.put(bulk);
+        dispatchQueue.put(normal);
+        dispatchQueue.put(control);
+        Assert.assertEquals(1, dispatchQueue.size(ActionPriority.BULK));
+        Assert.assertSame(control, dispatchQueue.take());
+        Assert.assertSame(normal, dispatchQueue.take());
+        Assert.assertSame(bulk, dispatchQueue.take());
+    }
+
+    @Test
+    public void testStarvationGuard() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(64, OverloadPolicy.REJECT, 4);
+        Action bulk = new GetNetwork(new Network(Collections.singletonList(node)));
+        dispatchQueue.put(bulk);
+        for(int i = 0; i < 10; i++) {
+            dispatchQueue.put(new SetPredecessor(node));
+        }
+        for(int i = 0; i < 4; i++) {
+            Assert.assertTrue(dispatchQueue.take() instanceof SetPredecessor);
+        }
+        Assert.assertSame(bulk, dispatchQueue.take());
+        Assert.assertEquals(6, dispatchQueue.size(ActionPriority.CONTROL));
+    }
+
+    @Test
+    public void testPeerDisconnectedKeepsPeerOrder() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(8, OverloadPolicy.REJECT);
+        GetNodeRequest request = new GetNodeRequest();
+        request.setSourcePeer(peer);
+        GetNetwork bulk = new GetNetwork(new Network(Collections.singletonList(node)));
+        bulk.setSourcePeer(peer);
+        Action disconnected = new PeerDisconnected(peer);
+        dispatchQueue.put(request);
+        dispatchQueue.put(bulk);
+        dispatchQueue.put(disconnected);
+        Assert.assertSame(request, dispatchQueue.take());
+        Assert.assertSame(bulk, dispatchQueue.take());
+        Assert.assertSame(disconnected, dispatchQueue.take());
+        Assert.assertTrue(dispatchQueue.isEmpty());
+    }
+
+    @Test
+    public void testLocalActionsNeverEvicted() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(1, 0, OverloadPolicy.DROP_LOWEST_PRIORITY, 16);
+        Action disconnected = new PeerDisconnected(peer);
+        dispatchQueue.put(disconnected);
+        Assert.assertFalse(dispatchQueue.put(new SetPredecessor(node)));
+        Assert.assertEquals(1, dispatchQueue.getDroppedCount());
+        Assert.assertSame(disconnected, dispatchQueue.take());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStarvationLimit() {
+        new DispatchQueue(4, OverloadPolicy.REJECT, 0);
+    }
+
+    @Test
+    public void testControlAdmittedWhenFull() throws InterruptedException {
+        DispatchQueue dispatchQueue = new DispatchQueue(1, OverloadPolicy.REJECT);
+        Assert.assertTrue(dispatchQueue.put(new GetNodeRequest()));
+        Assert.assertTrue(dispatchQueue.put(new Action() {}));
+        Assert.assertEquals(2, dispatchQueue.size());
+    }
+
+    @Test
+    public void testRemoteControlBoundedByReserve() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(1, 1, OverloadPolicy.REJECT, 16);
+        Assert.assertTrue(dispatchQueue.put(new GetNodeRequest()));
+        Assert.assertTrue(dispatchQueue.put(identityRequest(1)));
+        Assert.assertFalse(dispatchQueue.put(identityRequest(2)));
+        Assert.assertTrue(dispatchQueue.put(new PeerDisconnected(peer)));
+        ArgumentCaptor<OverloadedResponse> responseCaptor = ArgumentCaptor.forClass(OverloadedResponse.class);
+        Mockito.verify(peer, Mockito.times(1)).send(responseCaptor.capture());
+        Assert.assertEquals(2, responseCaptor.getValue().getRequestId());
+        Assert.assertEquals(3, dispatchQueue.size());
+    }
+
+    @Test
+    public void testDropLowestPriority() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(2, 0, OverloadPolicy.DROP_LOWEST_PRIORITY, 16);
+        Action normal = new GetNodeRequest();
+        Action control = new SetPredecessor(node);
+        Assert.assertTrue(dispatchQueue.put(normal));
+        Assert.assertTrue(dispatchQueue.put(new GetNetwork(new Network(Collections.singletonList(node)))));
+        Assert.assertTrue(dispatchQueue.put(control));
+        Assert.assertFalse(dispatchQueue.put(new GetNodeRequest()));
+        Assert.assertEquals(2, dispatchQueue.getDroppedCount());
+        Assert.assertSame(control, dispatchQueue.take());
+        Assert.assertSame(normal, dispatchQueue.take());
+    }
+
+    @Test
+    public void testRejectAnswersRequest() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(1, OverloadPolicy.REJECT);
+        GetNodeRequest request = new GetNodeRequest();
+        request.setRequestId(42);
+        request.setSourcePeer(peer);
+        TransportableAction bulk = new GetNetwork(new Network(Collections.singletonList(node)));
+        bulk.setSourcePeer(peer);
+        Assert.assertTrue(dispatchQueue.put(new GetNodeRequest()));
+        Assert.assertFalse(dispatchQueue.put(request));
+        Assert.assertFalse(dispatchQueue.put(bulk));
+        ArgumentCaptor<OverloadedResponse> responseCaptor = ArgumentCaptor.forClass(OverloadedResponse.class);
+        Mockito.verify(peer, Mockito.times(1)).send(responseCaptor.capture());
+        Assert.assertEquals(42, responseCaptor.getValue().getRequestId());
+        Assert.assertEquals(1, dispatchQueue.getRejectedCount());
+        Assert.assertEquals(1, dispatchQueue.getDroppedCount());
+        Assert.assertEquals(1, dispatchQueue.size());
+    }
+
+    @Test
+    public void testBlockAdmitsAndSaturates() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(1, OverloadPolicy.BLOCK);
+        Action first = new GetNodeRequest();
+        Action second = new GetNodeRequest();
+        Assert.assertTrue(dispatchQueue.put(first));
+        Assert.assertTrue(dispatchQueue.isSaturated());
+        Assert.assertTrue(dispatchQueue.put(second));
+        Assert.assertEquals(2, dispatchQueue.size());
+
+        Runnable callback = Mockito.mock(Runnable.class);
+        dispatchQueue.whenUnsaturated(callback);
+        Assert.assertSame(first, dispatchQueue.take());
+        Mockito.verify(callback, Mockito.never()).run();
+        Assert.assertSame(second, dispatchQueue.take());
+        Mockito.verify(callback, Mockito.times(1)).run();
+        Assert.assertFalse(dispatchQueue.isSaturated());
+
+        dispatchQueue.whenUnsaturated(callback);
+        Mockito.verify(callback, Mockito.times(2)).run();
+    }
+
+    @Test
+    public void testOnlyBlockSaturates() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(1, OverloadPolicy.REJECT);
+        dispatchQueue.put(new GetNodeRequest());
+        Assert.assertFalse(dispatchQueue.isSaturated());
+    }
+
+    @Test
+    public void testRejectSentOutsideLock() throws Exception {
+        DispatchQueue dispatchQueue = new DispatchQueue(1, 0, OverloadPolicy.REJECT, 16);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Mockito.doAnswer(invocation -> CompletableFuture.supplyAsync(dispatchQueue::size, executorService)
+                    .get(1, TimeUnit.SECONDS)).when(peer).send(Mockito.any(OverloadedResponse.class));
+            dispatchQueue.put(new GetNodeRequest());
+            Assert.assertFalse(dispatchQueue.put(identityRequest(7)));
+            Mockito.verify(peer, Mockito.times(1)).send(Mockito.any(OverloadedResponse.class));
+            Assert.assertEquals(1, dispatchQueue.getRejectedCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private GetNodeIdentityRequest identityRequest(long requestId) {
+        GetNodeIdentityRequest request = new GetNodeIdentityRequest();
+        request.setRequestId(requestId);
+        request.setSourcePeer(peer);
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
+import com.virohtus.dht.core.engine.action.peer.PeerConnected;
+import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.engine.store.Subscription;
+import com.virohtus.dht.core.network.peer.Peer;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+
+public class DispatchTableTest {
+
+    @Mock private Store peerStore;
+    @Mock private Store identityStore;
+    @Mock private Store allStore;
+    @Mock private Store noneStore;
+    @Mock private Peer peer;
+    private DispatchTable dispatchTable;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(peerStore.getSubscription()).thenReturn(Subscription.of(PeerDisconnected.class));
+        Mockito.when(identityStore.getSubscription()).thenReturn(Subscription.ofTypes(DhtProtocol.GET_NODE_IDENTITY_REQUEST));
+        Mockito.when(noneStore.getSubscription()).thenReturn(Subscription.NONE);
+        dispatchTable = DispatchTable.EMPTY
+                .withStore(peerStore)
+                .withStore(identityStore)
+                .withStore(allStore)
+                .withStore(noneStore);
+    }
+
+    @Test
+    public void testRoutesByClass() {
+        Assert.assertArrayEquals(new Store[]{peerStore, allStore}, dispatchTable.storesFor(new PeerDisconnected(peer)));
+        Assert.assertArrayEquals(new Store[]{allStore}, dispatchTable.storesFor(new PeerConnected(peer)));
+    }
+
+    @Test
+    public void testRoutesByType() {
+        Assert.assertArrayEquals(new Store[]{identityStore, allStore}, dispatchTable.storesFor(new GetNodeIdentityRequest()));
+    }
+
+    @Test
+    public void testMissingSubscriptionReceivesEverything() {
+        Action action = new Action() {};
+        Assert.assertArrayEquals(new Store[]{allStore}, dispatchTable.storesFor(action));
+    }
+
+    @Test
+    public void testRouteResolvedOnce() {
+        Store[] route = dispatchTable.storesFor(new PeerDisconnected(peer));
+        Assert.assertSame(route, dispatchTable.storesFor(new PeerDisconnected(peer)));
+    }
+
+    @Test
+    public void testWithoutStore() {
+        DispatchTable updated = dispatchTable.withoutStore(allStore);
+        Assert.assertEquals(Arrays.asList(peerStore, identityStore, allStore, noneStore), dispatchTable.getStores());
+        Assert.assertEquals(Arrays.asList(peerStore, identityStore, noneStore), updated.getStores());
+        Assert.assertArrayEquals(new Store[]{peerStore}, updated.storesFor(new PeerDisconnected(peer)));
+    }
+}
@@ -9,6 +9,11 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
         EngineActionTestSuite.class,
         StoreTestSuite.class,
+        ActionAffinityTest.class,
+        DispatchQueueTest.class,
+        DispatchTableTest.class,
+        PartitionedDispatcherTest.class,
+        RingBufferDispatcherTest.class,
         SingleThreadedDispatcherTest.class
 })
 public class EngineTestSuite {
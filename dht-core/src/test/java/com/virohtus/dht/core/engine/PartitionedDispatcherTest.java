@@ -0,0 +1,135 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.engine.store.Store;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class PartitionedDispatcherTest {
+
+    private ExecutorService executorService = Executors.newCachedThreadPool();
+    private PartitionedDispatcher partitionedDispatcher;
+    @Mock private Store store;
+
+    private static class KeyedAction extends Action {
+        private final int key;
+        private final int sequence;
+
+        private KeyedAction(int key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        partitionedDispatcher = new PartitionedDispatcher(executorService, 4,
+                action -> action instanceof KeyedAction ? ((KeyedAction) action).key : 0);
+        partitionedDispatcher.registerStore(store);
+    }
+
+    @After
+    public void teardown() {
+        partitionedDispatcher.shutdown();
+    }
+
+    @Test
+    public void testStartStop() {
+        Assert.assertFalse(partitionedDispatcher.isAlive());
+        partitionedDispatcher.start();
+        Assert.assertTrue(partitionedDispatcher.isAlive());
+        partitionedDispatcher.shutdown();
+        Assert.assertFalse(partitionedDispatcher.isAlive());
+    }
+
+    @Test
+    public void testDispatch() throws InterruptedException {
+        Action action = Mockito.mock(Action.class);
+        partitionedDispatcher.start();
+        partitionedDispatcher.dispatch(action);
+        ArgumentCaptor<Action> actionCaptor = ArgumentCaptor.forClass(Action.class);
+        Mockito.verify(store, Mockito.timeout(2000).times(1)).onAction(actionCaptor.capture());
+        Assert.assertEquals(action, actionCaptor.getValue());
+    }
+
+    @Test(timeout = 10000)
+    public void testOrderKeptPerKey() throws InterruptedException {
+        int keys = 8;
+        int perKey = 500;
+        List<List<Integer>> received = new ArrayList<>();
+        for(int key = 0; key < keys; key++) {
+            received.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(keys * perKey);
+        partitionedDispatcher.registerStore(action -> {
+            if(action instanceof KeyedAction) {
+                KeyedAction keyedAction = (KeyedAction) action;
+                received.get(keyedAction.key).add(keyedAction.sequence);
+                done.countDown();
+            }
+        });
+        partitionedDispatcher.start();
+        for(int sequence = 0; sequence < perKey; sequence++) {
+            for(int key = 0; key < keys; key++) {
+                partitionedDispatcher.dispatch(new KeyedAction(key, sequence));
+            }
+        }
+        done.await();
+        for(List<Integer> sequences : received) {
+            for(int i = 0; i < perKey; i++) {
+                Assert.assertEquals(Integer.valueOf(i), sequences.get(i));
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testSlowKeyDoesNotStallOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherHandled = new CountDownLatch(1);
+        int blockedKey = 0;
+        int otherKey = 1;
+        while(partitionedDispatcher.partitionOf(otherKey) == partitionedDispatcher.partitionOf(blockedKey)) {
+            otherKey++;
+        }
+        int freeKey = otherKey;
+        partitionedDispatcher.registerStore(action -> {
+            if(!(action instanceof KeyedAction)) {
+                return;
+            }
+            try {
+                if(((KeyedAction) action).key == blockedKey) {
+                    release.await();
+                } else if(((KeyedAction) action).key == freeKey) {
+                    otherHandled.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        partitionedDispatcher.start();
+        partitionedDispatcher.dispatch(new KeyedAction(blockedKey, 0));
+        partitionedDispatcher.dispatch(new KeyedAction(freeKey, 0));
+        Assert.assertTrue(otherHandled.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void testListStores() {
+        Assert.assertEquals(Collections.singletonList(store), partitionedDispatcher.listStores());
+    }
+}
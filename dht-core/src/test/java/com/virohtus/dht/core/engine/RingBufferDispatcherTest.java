@@ -0,0 +1,210 @@
+package com.virohtus.dht.core.engine;
+
+import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.engine.store.Store;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class RingBufferDispatcherTest {
+
+    private ExecutorService executorService = Executors.newCachedThreadPool();
+    private RingBufferDispatcher ringBufferDispatcher;
+    @Mock private Store store;
+
+    private static class SequencedAction extends Action {
+        private final int producer;
+        private final int sequence;
+
+        private SequencedAction(int producer, int sequence) {
+            this.producer = producer;
+            this.sequence = sequence;
+        }
+    }
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        ringBufferDispatcher = new RingBufferDispatcher(executorService, 8, WaitStrategy.PARK);
+        ringBufferDispatcher.registerStore(store);
+    }
+
+    @After
+    public void teardown() {
+        ringBufferDispatcher.shutdown();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testStartStop() {
+        Assert.assertFalse(ringBufferDispatcher.isAlive());
+        ringBufferDispatcher.start();
+        Assert.assertTrue(ringBufferDispatcher.isAlive());
+        ringBufferDispatcher.shutdown();
+        Assert.assertFalse(ringBufferDispatcher.isAlive());
+    }
+
+    @Test
+    public void testDispatch() {
+        Action action = Mockito.mock(Action.class);
+        ringBufferDispatcher.start();
+        ringBufferDispatcher.dispatch(action);
+        Mockito.verify(store, Mockito.timeout(2000).times(1)).onAction(action);
+        Assert.assertEquals(0, ringBufferDispatcher.getQueuedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePowerOfTwo() {
+        new RingBufferDispatcher(executorService, 12, WaitStrategy.SPIN);
+    }
+
+    @Test
+    public void testQueuedUntilStarted() {
+        Action action = Mockito.mock(Action.class);
+        ringBufferDispatcher.dispatch(action);
+        ringBufferDispatcher.dispatch(action);
+        Assert.assertEquals(2, ringBufferDispatcher.getQueuedCount());
+        ringBufferDispatcher.start();
+        Mockito.verify(store, Mockito.timeout(2000).times(2)).onAction(action);
+    }
+
+    @Test(timeout = 10000)
+    public void testSpinOrderKeptPerProducer() throws InterruptedException {
+        assertOrderKeptPerProducer(WaitStrategy.SPIN);
+    }
+
+    @Test(timeout = 10000)
+    public void testYieldOrderKeptPerProducer() throws InterruptedException {
+        assertOrderKeptPerProducer(WaitStrategy.YIELD);
+    }
+
+    @Test(timeout = 10000)
+    public void testParkOrderKeptPerProducer() throws InterruptedException {
+        assertOrderKeptPerProducer(WaitStrategy.PARK);
+    }
+
+    @Test(timeout = 10000)
+    public void testFullRingTombstonedOnShutdown() throws Exception {
+        ringBufferDispatcher = new RingBufferDispatcher(executorService, 2, WaitStrategy.PARK);
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Action> received = Collections.synchronizedList(new ArrayList<>());
+        ringBufferDispatcher.registerStore(action -> {
+            received.add(action);
+            handling.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ringBufferDispatcher.start();
+        Action first = new SequencedAction(0, 0);
+        Action second = new SequencedAction(0, 1);
+        Action third = new SequencedAction(0, 2);
+        ringBufferDispatcher.dispatch(first);
+        Assert.assertTrue(handling.await(2, TimeUnit.SECONDS));
+        ringBufferDispatcher.dispatch(second);
+        Future producer = executorService.submit(() -> ringBufferDispatcher.dispatch(third));
+        while(ringBufferDispatcher.getQueuedCount() < 3) {
+            Thread.sleep(1);
+        }
+        ringBufferDispatcher.shutdown();
+        release.countDown();
+        producer.get(2, TimeUnit.SECONDS);
+        while(ringBufferDispatcher.isAlive()) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(Arrays.asList(first, second), received);
+        Assert.assertEquals(0, ringBufferDispatcher.getQueuedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testFullRingDroppedWhenWorkerStopped() throws Exception {
+        ringBufferDispatcher = new RingBufferDispatcher(executorService, 2, WaitStrategy.PARK);
+        ringBufferDispatcher.registerStore(action -> {
+            throw new Error("worker dies");
+        });
+        ringBufferDispatcher.start();
+        ringBufferDispatcher.dispatch(new SequencedAction(0, 0));
+        while(ringBufferDispatcher.isAlive()) {
+            Thread.sleep(1);
+        }
+        ringBufferDispatcher.dispatch(new SequencedAction(0, 1));
+        ringBufferDispatcher.dispatch(new SequencedAction(0, 2));
+        Assert.assertEquals(3, ringBufferDispatcher.getQueuedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testWorkerDispatchesIntoFullRing() throws Exception {
+        ringBufferDispatcher = new RingBufferDispatcher(executorService, 2, WaitStrategy.PARK);
+        Action first = new SequencedAction(0, 0);
+        List<Action> dispatched = Arrays.asList(new SequencedAction(1, 0), new SequencedAction(1, 1), new SequencedAction(1, 2));
+        List<Action> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+        ringBufferDispatcher.registerStore(action -> {
+            received.add(action);
+            if(action == first) {
+                dispatched.forEach(ringBufferDispatcher::dispatch);
+            }
+            done.countDown();
+        });
+        ringBufferDispatcher.start();
+        ringBufferDispatcher.dispatch(first);
+        Assert.assertTrue(done.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(first, received.get(0));
+        Assert.assertEquals(dispatched, received.subList(1, 4));
+    }
+
+    @Test
+    public void testListStores() {
+        Assert.assertEquals(Collections.singletonList(store), ringBufferDispatcher.listStores());
+    }
+
+    // a small ring forces producers to wrap around and wait on the worker many times
+    private void assertOrderKeptPerProducer(WaitStrategy waitStrategy) throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20000;
+        ringBufferDispatcher = new RingBufferDispatcher(executorService, 16, waitStrategy);
+        List<List<Integer>> received = new ArrayList<>();
+        for(int producer = 0; producer < producers; producer++) {
+            received.add(new ArrayList<>());
+        }
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        ringBufferDispatcher.registerStore(action -> {
+            SequencedAction sequencedAction = (SequencedAction) action;
+            received.get(sequencedAction.producer).add(sequencedAction.sequence);
+            done.countDown();
+        });
+        ringBufferDispatcher.start();
+        for(int producer = 0; producer < producers; producer++) {
+            int id = producer;
+            executorService.execute(() -> {
+                for(int sequence = 0; sequence < perProducer; sequence++) {
+                    ringBufferDispatcher.dispatch(new SequencedAction(id, sequence));
+                }
+            });
+        }
+        Assert.assertTrue(done.await(8, TimeUnit.SECONDS));
+        for(List<Integer> sequences : received) {
+            Assert.assertEquals(perProducer, sequences.size());
+            for(int i = 0; i < perProducer; i++) {
+                Assert.assertEquals(Integer.valueOf(i), sequences.get(i));
+            }
+        }
+    }
+}
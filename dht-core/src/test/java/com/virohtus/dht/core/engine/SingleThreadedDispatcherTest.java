@@ -3,6 +3,7 @@ package com.virohtus.dht.core.engine;
 import com.virohtus.dht.core.action.Action;
 import com.virohtus.dht.core.engine.action.network.JoinNetworkRequest;
 import com.virohtus.dht.core.engine.store.Store;
+import com.virohtus.dht.core.engine.store.Subscription;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -77,6 +78,19 @@ public class SingleThreadedDispatcherTest {
         singleThreadedDispatcher.shutdown();
     }
 
+    @Test
+    public void testUninterestedStoreSkipped() throws InterruptedException {
+        Action action = Mockito.mock(Action.class);
+        Store newStore = Mockito.mock(Store.class);
+        Mockito.when(newStore.getSubscription()).thenReturn(Subscription.of(JoinNetworkRequest.class));
+        singleThreadedDispatcher.registerStore(newStore);
+        singleThreadedDispatcher.start();
+        singleThreadedDispatcher.dispatch(action);
+        Mockito.verify(store, Mockito.timeout(2000).times(1)).onAction(action);
+        Mockito.verify(newStore, Mockito.never()).onAction(Mockito.any());
+        singleThreadedDispatcher.shutdown();
+    }
+
     @Test
     public void testListStores() {
         Assert.assertEquals(Arrays.asList(store), singleThreadedDispatcher.listStores());
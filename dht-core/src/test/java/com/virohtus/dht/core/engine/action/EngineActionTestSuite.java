@@ -1,11 +1,13 @@
 package com.virohtus.dht.core.engine.action;
 
+import com.virohtus.dht.core.engine.action.network.GetNetworkTest;
 import com.virohtus.dht.core.engine.action.network.JoinNetworkRequestTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+        GetNetworkTest.class,
         JoinNetworkRequestTest.class
 })
 public class EngineActionTestSuite {
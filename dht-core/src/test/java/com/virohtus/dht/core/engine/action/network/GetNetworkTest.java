@@ -0,0 +1,81 @@
+package com.virohtus.dht.core.engine.action.network;
+
+import com.virohtus.dht.core.action.ActionFactory;
+import com.virohtus.dht.core.network.FingerTable;
+import com.virohtus.dht.core.network.Keyspace;
+import com.virohtus.dht.core.network.Network;
+import com.virohtus.dht.core.network.Node;
+import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.util.Deadline;
+import com.virohtus.dht.core.util.Id;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class GetNetworkTest {
+
+    private Node createNode(long id) throws IOException {
+        InetSocketAddress socketAddress = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 1}), 4000);
+        return new Node(new NodeIdentity(new Id(0, id), socketAddress), new Keyspace(), new FingerTable());
+    }
+
+    private GetNetwork forward(GetNetwork getNetwork) throws IOException {
+        return forward(getNetwork.serialize());
+    }
+
+    private GetNetwork forward(byte[] serialized) throws IOException {
+        return (GetNetwork) ActionFactory.getInstance().createTransportableAction(new DhtEvent(serialized));
+    }
+
+    @Test
+    public void testNodesAppendedAlongTheRing() throws IOException {
+        Node origin = createNode(1);
+        GetNetwork getNetwork = forward(new GetNetwork(new Network(Collections.singletonList(origin)), Deadline.after(60000)));
+        for(long id = 2; id <= 4; id++) {
+            Assert.assertEquals(origin.getNodeIdentity(), getNetwork.getOrigin());
+            getNetwork = forward(getNetwork.withNode(createNode(id)));
+        }
+        Assert.assertEquals(4, getNetwork.getNodeCount());
+        Assert.assertFalse(getNetwork.getDeadline().isNone());
+
+        List<Node> nodes = getNetwork.getNetwork().getNodes();
+        Assert.assertEquals(4, nodes.size());
+        for(int i = 0; i < nodes.size(); i++) {
+            Assert.assertEquals(new Id(0, i + 1), nodes.get(i).getNodeIdentity().getNodeId());
+        }
+    }
+
+    @Test
+    public void testAppendLeavesOriginalUntouched() throws IOException {
+        GetNetwork getNetwork = new GetNetwork(new Network(new ArrayList<>(Collections.singletonList(createNode(1)))));
+        int size = getNetwork.getWireSize();
+        GetNetwork forwarded = getNetwork.withNode(createNode(2));
+        Assert.assertEquals(1, getNetwork.getNodeCount());
+        Assert.assertEquals(size, getNetwork.getWireSize());
+        Assert.assertEquals(size + createNode(2).getWireSize(), forwarded.getWireSize());
+        Assert.assertEquals(forwarded.getWireSize(), forwarded.serialize().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNodeCountBoundedByLength() throws IOException {
+        Node node = createNode(1);
+        byte[] serialized = new GetNetwork(new Network(Collections.singletonList(node))).serialize();
+        int nodeCountOffset = serialized.length - node.getWireSize() - 2 * Integer.BYTES;
+        Assert.assertEquals(1, ByteBuffer.wrap(serialized).getInt(nodeCountOffset));
+        ByteBuffer.wrap(serialized).putInt(nodeCountOffset, Integer.MAX_VALUE);
+        forward(serialized);
+    }
+
+    @Test
+    public void testEmptyNetworkHasNoOrigin() throws IOException {
+        Assert.assertNull(forward(new GetNetwork(new Network(new ArrayList<>()))).getOrigin());
+    }
+}
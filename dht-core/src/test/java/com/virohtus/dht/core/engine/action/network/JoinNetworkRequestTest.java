@@ -5,6 +5,7 @@ import com.virohtus.dht.core.network.Keyspace;
 import com.virohtus.dht.core.network.Node;
 import com.virohtus.dht.core.network.NodeIdentity;
 import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.Id;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -12,7 +13,7 @@ public class JoinNetworkRequestTest {
 
     @Test
     public void testGetType() {
-        JoinNetworkRequest request = new JoinNetworkRequest(new Node(new NodeIdentity("123", null), new Keyspace(), new FingerTable()));
+        JoinNetworkRequest request = new JoinNetworkRequest(new Node(new NodeIdentity(new Id(0, 123), null), new Keyspace(), new FingerTable()));
         Assert.assertEquals(DhtProtocol.JOIN_NETWORK_REQUEST, request.getType());
     }
 }
@@ -1,5 +1,7 @@
 package com.virohtus.dht.core.engine.store;
 
+import com.virohtus.dht.core.engine.store.network.NetworkStoreTest;
+import com.virohtus.dht.core.engine.store.network.StabilizationStoreTest;
 import com.virohtus.dht.core.engine.store.peer.PeerStoreTest;
 import com.virohtus.dht.core.engine.store.server.ServerStoreTest;
 import org.junit.runner.RunWith;
@@ -7,7 +9,9 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+        NetworkStoreTest.class,
         PeerStoreTest.class,
+        StabilizationStoreTest.class,
         ServerStoreTest.class
 })
 public class StoreTestSuite {
@@ -0,0 +1,46 @@
+package com.virohtus.dht.core.engine.store.network;
+
+import com.virohtus.dht.core.DhtNodeManager;
+import com.virohtus.dht.core.engine.action.network.GetNetwork;
+import com.virohtus.dht.core.engine.store.peer.PeerStore;
+import com.virohtus.dht.core.network.FingerTable;
+import com.virohtus.dht.core.network.Keyspace;
+import com.virohtus.dht.core.network.Network;
+import com.virohtus.dht.core.network.Node;
+import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.network.NodeManager;
+import com.virohtus.dht.core.util.Deadline;
+import com.virohtus.dht.core.util.Id;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+
+public class NetworkStoreTest {
+
+    @Mock private DhtNodeManager dhtNodeManager;
+    @Mock private PeerStore peerStore;
+    private NetworkStore networkStore;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        NodeManager nodeManager = new NodeManager(createNode(1));
+        networkStore = new NetworkStore(dhtNodeManager, nodeManager, peerStore);
+    }
+
+    @Test
+    public void testGetNetworkWithoutSuccessorDropped() throws Exception {
+        GetNetwork getNetwork = new GetNetwork(new Network(Collections.singletonList(createNode(2))), Deadline.after(60000));
+        networkStore.onAction(getNetwork);
+        Mockito.verify(peerStore, Mockito.never()).getPeer(Mockito.any(Node.class));
+    }
+
+    private Node createNode(int id) {
+        return new Node(new NodeIdentity(new Id(0, id), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+    }
+}
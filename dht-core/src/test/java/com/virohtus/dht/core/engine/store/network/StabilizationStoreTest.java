@@ -0,0 +1,105 @@
+package com.virohtus.dht.core.engine.store.network;
+
+import com.virohtus.dht.core.engine.action.network.GetNodeRequest;
+import com.virohtus.dht.core.engine.action.network.GetNodeResponse;
+import com.virohtus.dht.core.engine.action.network.SetPredecessor;
+import com.virohtus.dht.core.engine.store.peer.PeerStore;
+import com.virohtus.dht.core.network.FingerTable;
+import com.virohtus.dht.core.network.Keyspace;
+import com.virohtus.dht.core.network.Node;
+import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.network.NodeManager;
+import com.virohtus.dht.core.network.peer.Peer;
+import com.virohtus.dht.core.network.peer.PeerType;
+import com.virohtus.dht.core.util.Id;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class StabilizationStoreTest {
+
+    @Mock private PeerStore peerStore;
+    @Mock private Peer successor;
+    @Mock private Peer newSuccessor;
+    private ExecutorService executorService;
+    private NodeManager nodeManager;
+    private Node node;
+    private Node successorNode;
+    private CompletableFuture<GetNodeResponse> response;
+    private StabilizationStore stabilizationStore;
+
+    @Before
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        executorService = Executors.newSingleThreadExecutor();
+        node = createNode(1);
+        successorNode = createNode(2);
+        nodeManager = new NodeManager(node);
+        nodeManager.setImmediateSuccessor(successorNode);
+        response = new CompletableFuture<>();
+        stabilizationStore = new StabilizationStore(executorService, nodeManager, peerStore);
+
+        Mockito.when(peerStore.getPeer(Mockito.any(Node.class))).thenReturn(successor);
+        Mockito.when(successor.isWritable()).thenReturn(true);
+        Mockito.when(successor.getNodeIdentity()).thenReturn(successorNode.getNodeIdentity());
+        Mockito.when(successor.sendRequest(Mockito.any(GetNodeRequest.class), Mockito.eq(GetNodeResponse.class))).thenReturn(response);
+    }
+
+    @After
+    public void cleanup() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testRoundSkippedWhileInFlight() throws Exception {
+        stabilizationStore.stabilize();
+        stabilizationStore.stabilize();
+        Mockito.verify(successor, Mockito.times(1)).sendRequest(Mockito.any(GetNodeRequest.class), Mockito.eq(GetNodeResponse.class));
+
+        respond(successorNode.withFingerTable(new FingerTable().withPredecessor(node)));
+        stabilizationStore.stabilize();
+        Mockito.verify(successor, Mockito.times(2)).sendRequest(Mockito.any(GetNodeRequest.class), Mockito.eq(GetNodeResponse.class));
+    }
+
+    @Test
+    public void testPredecessorSetOnSuccessorWithout() throws Exception {
+        stabilizationStore.stabilize();
+        respond(successorNode);
+        Mockito.verify(successor, Mockito.times(1)).sendBatched(Mockito.isA(SetPredecessor.class));
+        Assert.assertEquals(successorNode.getNodeIdentity(), nodeManager.getCurrentNode().getFingerTable().getImmediateSuccessor().getNodeIdentity());
+    }
+
+    @Test
+    public void testSuccessorReplacedByItsPredecessor() throws Exception {
+        Node between = createNode(3);
+        Mockito.when(peerStore.getOrCreatePeer(between.getNodeIdentity())).thenReturn(newSuccessor);
+
+        stabilizationStore.stabilize();
+        respond(successorNode.withFingerTable(new FingerTable().withPredecessor(between).withImmediateSuccessor(createNode(4))));
+        Mockito.verify(newSuccessor, Mockito.times(1)).sendBatched(Mockito.isA(SetPredecessor.class));
+        Mockito.verify(successor, Mockito.never()).sendBatched(Mockito.any());
+        Assert.assertEquals(between.getNodeIdentity(), nodeManager.getCurrentNode().getFingerTable().getImmediateSuccessor().getNodeIdentity());
+        Mockito.verify(successor, Mockito.times(1)).shutdown();
+        Mockito.verify(successor, Mockito.never()).setType(PeerType.INCOMING);
+    }
+
+    // the reply is handled on the single executor thread, a task queued behind it runs once the round is done
+    private void respond(Node current) throws Exception {
+        response.complete(new GetNodeResponse(1, current));
+        executorService.submit(() -> {}).get(2, TimeUnit.SECONDS);
+    }
+
+    private Node createNode(int id) {
+        return new Node(new NodeIdentity(new Id(0, id), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+    }
+}
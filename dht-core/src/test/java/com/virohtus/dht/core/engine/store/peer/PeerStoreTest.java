@@ -1,21 +1,32 @@
 package com.virohtus.dht.core.engine.store.peer;
 
+import com.virohtus.dht.core.action.ActionFactory;
 import com.virohtus.dht.core.engine.Dispatcher;
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityResponse;
+import com.virohtus.dht.core.engine.action.peer.PeerConnected;
 import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
+import com.virohtus.dht.core.network.NodeIdentity;
 import com.virohtus.dht.core.network.peer.Peer;
 import com.virohtus.dht.core.network.peer.PeerNotFoundException;
 import com.virohtus.dht.core.network.peer.PeerType;
 import com.virohtus.dht.core.transport.connection.Connection;
+import com.virohtus.dht.core.transport.connection.EventLoopGroup;
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.util.Id;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.concurrent.ExecutorService;
@@ -28,12 +39,18 @@ public class PeerStoreTest {
     @Mock private Peer peer;
     @Mock private Connection connection;
     private static ExecutorService executorService = Executors.newCachedThreadPool();
+    private static EventLoopGroup eventLoopGroup;
     private PeerStore peerStore;
 
+    @BeforeClass
+    public static void classSetup() throws IOException {
+        eventLoopGroup = new EventLoopGroup(2);
+    }
+
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        peerStore = new PeerStore(dispatcher, executorService);
+        peerStore = new PeerStore(dispatcher, executorService, eventLoopGroup);
 
         Mockito.when(peer.getId()).thenReturn(getTestPeerId());
     }
@@ -41,10 +58,11 @@ public class PeerStoreTest {
     @AfterClass
     public static void classCleanup() {
         executorService.shutdownNow();
+        eventLoopGroup.shutdown(1, TimeUnit.SECONDS);
     }
 
-    private String getTestPeerId() {
-        return "testPeerId";
+    private Id getTestPeerId() {
+        return new Id(0, 1);
     }
 
     @Test
@@ -55,7 +73,7 @@ public class PeerStoreTest {
 
     @Test(expected = PeerNotFoundException.class)
     public void testGetPeerNonexistent() throws PeerNotFoundException {
-        peerStore.getPeer("bogus");
+        peerStore.getPeer(new Id(0, 2));
     }
 
     @Test(expected = PeerNotFoundException.class)
@@ -80,15 +98,77 @@ public class PeerStoreTest {
 
     @Test
     public void testCreatePeerWithInet() throws IOException {
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0))) {
+            Peer peer = peerStore.createPeer(serverSocketChannel.getLocalAddress());
+            Assert.assertEquals(PeerType.OUTGOING, peer.getType());
+            peer.shutdown();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCreatePeerConnectFailure() throws IOException {
         peerStore.createPeer(new InetSocketAddress(0));
     }
 
+    @Test
+    public void testGetOrCreatePeerReusesIdentifiedPeer() throws IOException, PeerNotFoundException {
+        InetSocketAddress socketAddress = new InetSocketAddress("localhost", 0);
+        NodeIdentity nodeIdentity = new NodeIdentity(new Id(0, 3), socketAddress);
+        Mockito.when(peer.getNodeIdentity()).thenReturn(nodeIdentity);
+        Mockito.when(peer.isListening()).thenReturn(true);
+        peerStore.addPeer(peer);
+
+        Assert.assertEquals(peer, peerStore.getOrCreatePeer(new NodeIdentity(new Id(0, 3), null)));
+        Assert.assertEquals(peer, peerStore.getOrCreatePeer(socketAddress));
+        Assert.assertEquals(peer, peerStore.getPeer(socketAddress));
+    }
+
+    @Test(expected = IOException.class)
+    public void testGetOrCreatePeerSkipsDeadPeer() throws IOException {
+        InetSocketAddress socketAddress = new InetSocketAddress(0);
+        Mockito.when(peer.getNodeIdentity()).thenReturn(new NodeIdentity(new Id(0, 3), socketAddress));
+        Mockito.when(peer.isListening()).thenReturn(false);
+        peerStore.addPeer(peer);
+        peerStore.getOrCreatePeer(socketAddress);
+    }
+
+    @Test(expected = PeerNotFoundException.class)
+    public void testRemovedPeerNotPooled() throws PeerNotFoundException {
+        InetSocketAddress socketAddress = new InetSocketAddress("localhost", 0);
+        Mockito.when(peer.getNodeIdentity()).thenReturn(new NodeIdentity(new Id(0, 3), socketAddress));
+        peerStore.addPeer(peer);
+        peerStore.removePeer(peer);
+        peerStore.getPeer(socketAddress);
+    }
+
     @Test
     public void testCreatePeerWithConnection() throws PeerNotFoundException, IOException {
         Peer peer = peerStore.createPeer(connection, PeerType.INCOMING);
         Assert.assertEquals(peer, peerStore.getPeer(peer.getId()));
     }
 
+    @Test
+    public void testCreatePeerIdentifiedByHandshake() throws PeerNotFoundException, IOException {
+        Peer peer = peerStore.createPeer(connection, PeerType.INCOMING);
+        ArgumentCaptor<DhtEvent> eventCaptor = ArgumentCaptor.forClass(DhtEvent.class);
+        Mockito.verify(connection, Mockito.timeout(2000).times(1)).send(eventCaptor.capture());
+        GetNodeIdentityRequest request = (GetNodeIdentityRequest) ActionFactory.getInstance().createTransportableAction(eventCaptor.getValue());
+
+        NodeIdentity nodeIdentity = new NodeIdentity(new Id(0, 3), new InetSocketAddress("localhost", 0));
+        peer.dataReceived(new DhtEvent(new GetNodeIdentityResponse(request.getRequestId(), nodeIdentity).serialize()));
+        Mockito.verify(dispatcher, Mockito.timeout(2000).times(1)).dispatch(Mockito.isA(PeerConnected.class));
+        Assert.assertEquals(nodeIdentity, peer.getNodeIdentity());
+        Assert.assertEquals(peer, peerStore.getPeer(nodeIdentity.getSocketAddress()));
+    }
+
+    @Test
+    public void testPeerConnectedAfterFailedHandshake() {
+        Peer peer = peerStore.createPeer(connection, PeerType.INCOMING);
+        peer.listenerDisrupted();
+        Mockito.verify(dispatcher, Mockito.timeout(2000).times(1)).dispatch(Mockito.isA(PeerConnected.class));
+        Assert.assertNull(peer.getNodeIdentity());
+    }
+
     @Test
     public void testShutdown() throws InterruptedException {
         peerStore.addPeer(peer);
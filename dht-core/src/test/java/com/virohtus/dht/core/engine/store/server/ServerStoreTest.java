@@ -8,10 +8,12 @@ import com.virohtus.dht.core.engine.store.Store;
 import com.virohtus.dht.core.engine.store.peer.PeerStore;
 import com.virohtus.dht.core.network.peer.PeerType;
 import com.virohtus.dht.core.transport.connection.Connection;
+import com.virohtus.dht.core.transport.connection.EventLoopGroup;
 import com.virohtus.dht.core.transport.server.ServerDelegate;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
@@ -22,10 +24,12 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class ServerStoreTest {
 
     private static ExecutorService executorService = Executors.newCachedThreadPool();
+    private static EventLoopGroup eventLoopGroup;
     @Mock private ServerDelegate serverDelegate;
     @Mock private Dispatcher dispatcher;
     @Mock private PeerStore peerStore;
@@ -33,16 +37,22 @@ public class ServerStoreTest {
     @Mock private Connection connection;
     private ServerStore store;
 
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        eventLoopGroup = new EventLoopGroup(2);
+    }
+
     @Before
     public void setup() throws IOException {
         MockitoAnnotations.initMocks(this);
-        store = new ServerStore(dispatcher, executorService, peerStore, new InetSocketAddress(0));
+        store = new ServerStore(dispatcher, executorService, eventLoopGroup, peerStore, new InetSocketAddress(0));
         dispatcher.registerStore(handler);
     }
 
     @AfterClass
     public static void afterClass() {
         executorService.shutdownNow();
+        eventLoopGroup.shutdown(1, TimeUnit.SECONDS);
     }
 
     @Test
@@ -0,0 +1,31 @@
+package com.virohtus.dht.core.network;
+
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class FingerTableTest {
+
+    private FingerTable read(int successorCount) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DhtOutputStream outputStream = new DhtOutputStream(bytes)) {
+            outputStream.writeInt(successorCount);
+            outputStream.writeBoolean(false);
+        }
+        return new FingerTable(new DhtInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNegativeSuccessorCount() throws IOException {
+        read(-1);
+    }
+
+    @Test(expected = IOException.class)
+    public void testSuccessorCountBeyondPayload() throws IOException {
+        read(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.virohtus.dht.core.network;
+
+import com.virohtus.dht.core.network.peer.PeerTestSuite;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+        FingerTableTest.class,
+        NodeIdentityTest.class,
+        NodeManagerTest.class,
+        NodeTest.class,
+        PeerTestSuite.class
+})
+public class NetworkTestSuite {
+}
@@ -0,0 +1,41 @@
+package com.virohtus.dht.core.network;
+
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+import com.virohtus.dht.core.util.Id;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+public class NodeIdentityTest {
+
+    private NodeIdentity roundTrip(NodeIdentity nodeIdentity) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DhtOutputStream outputStream = new DhtOutputStream(byteArrayOutputStream);
+        nodeIdentity.toWire(outputStream);
+        outputStream.flush();
+        return new NodeIdentity(new DhtInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())));
+    }
+
+    @Test
+    public void testAddressBytesOnWire() throws IOException {
+        InetSocketAddress socketAddress = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 1, 2, 3}), 4000);
+        NodeIdentity received = roundTrip(new NodeIdentity(new Id(1, 2), socketAddress));
+        Assert.assertEquals(new Id(1, 2), received.getNodeId());
+        Assert.assertEquals(socketAddress, received.getSocketAddress());
+        Assert.assertFalse(((InetSocketAddress) received.getSocketAddress()).isUnresolved());
+    }
+
+    @Test
+    public void testWildcardAddressSentAsConnectable() throws IOException {
+        NodeIdentity received = roundTrip(new NodeIdentity(new Id(1, 2), new InetSocketAddress(4000)));
+        InetSocketAddress socketAddress = (InetSocketAddress) received.getSocketAddress();
+        Assert.assertFalse(socketAddress.getAddress().isAnyLocalAddress());
+        Assert.assertEquals(4000, socketAddress.getPort());
+    }
+}
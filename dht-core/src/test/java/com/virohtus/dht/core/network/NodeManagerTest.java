@@ -0,0 +1,57 @@
+package com.virohtus.dht.core.network;
+
+import com.virohtus.dht.core.util.Id;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+
+public class NodeManagerTest {
+
+    private NodeManager nodeManager;
+
+    private Node createNode(long id) {
+        return new Node(new NodeIdentity(new Id(0, id), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+    }
+
+    @Before
+    public void setup() {
+        nodeManager = new NodeManager(createNode(1));
+    }
+
+    @Test
+    public void testSnapshotUnchangedByUpdates() {
+        Node snapshot = nodeManager.getCurrentNode();
+        nodeManager.setImmediateSuccessor(createNode(2));
+        nodeManager.setPredecessor(createNode(3));
+        nodeManager.setKeyspace(new Keyspace(10, 20));
+        Assert.assertFalse(snapshot.getFingerTable().hasSuccessors());
+        Assert.assertNull(snapshot.getFingerTable().getPredecessor());
+        Assert.assertTrue(snapshot.getKeyspace().isDefaultKeyspace());
+
+        Node current = nodeManager.getCurrentNode();
+        Assert.assertEquals(new Id(0, 2), current.getFingerTable().getImmediateSuccessor().getNodeIdentity().getNodeId());
+        Assert.assertEquals(new Id(0, 3), current.getFingerTable().getPredecessor().getNodeIdentity().getNodeId());
+        Assert.assertEquals(10, current.getKeyspace().getStart());
+    }
+
+    @Test
+    public void testReadsDoNotCopy() {
+        Assert.assertSame(nodeManager.getCurrentNode(), nodeManager.getCurrentNode());
+    }
+
+    @Test
+    public void testRemoveAndMerge() {
+        nodeManager.setKeyspace(new Keyspace(10, 20));
+        nodeManager.mergeKeyspace(new Keyspace(5, 10));
+        nodeManager.setImmediateSuccessor(createNode(2));
+        nodeManager.setImmediateSuccessor(createNode(3));
+        nodeManager.removeSuccessor(createNode(2).getNodeIdentity());
+        Node current = nodeManager.getCurrentNode();
+        Assert.assertEquals(5, current.getKeyspace().getStart());
+        Assert.assertEquals(20, current.getKeyspace().getEnd());
+        Assert.assertEquals(1, current.getFingerTable().getSuccessors().size());
+        Assert.assertEquals(new Id(0, 3), current.getFingerTable().getImmediateSuccessor().getNodeIdentity().getNodeId());
+    }
+}
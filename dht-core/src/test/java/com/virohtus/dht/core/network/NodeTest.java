@@ -0,0 +1,64 @@
+package com.virohtus.dht.core.network;
+
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+import com.virohtus.dht.core.util.Id;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+public class NodeTest {
+
+    private Node createNode(long id) throws IOException {
+        InetSocketAddress socketAddress = new InetSocketAddress(InetAddress.getByAddress(new byte[] {10, 0, 0, 1}), 4000);
+        return new Node(new NodeIdentity(new Id(0, id), socketAddress), new Keyspace(), new FingerTable());
+    }
+
+    private byte[] toBytes(Node node) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DhtOutputStream outputStream = new DhtOutputStream(byteArrayOutputStream);
+        node.toWire(outputStream);
+        outputStream.flush();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    @Test
+    public void testNestedNodesSentAsReferences() throws IOException {
+        Node successor = createNode(2);
+        successor = successor.withFingerTable(successor.getFingerTable().withSuccessor(createNode(3)).withPredecessor(createNode(4)));
+        Node node = createNode(1);
+        node = node.withFingerTable(node.getFingerTable().withSuccessor(successor).withPredecessor(createNode(5)));
+
+        byte[] data = toBytes(node);
+        Assert.assertEquals(node.getWireSize(), data.length);
+        Node received = new Node(new DhtInputStream(new ByteArrayInputStream(data)));
+        Node receivedSuccessor = received.getFingerTable().getImmediateSuccessor();
+        Assert.assertEquals(new Id(0, 2), receivedSuccessor.getNodeIdentity().getNodeId());
+        Assert.assertFalse(receivedSuccessor.getFingerTable().hasSuccessors());
+        Assert.assertNull(receivedSuccessor.getFingerTable().getPredecessor());
+        Assert.assertEquals(new Id(0, 5), received.getFingerTable().getPredecessor().getNodeIdentity().getNodeId());
+    }
+
+    @Test
+    public void testWireSizeIndependentOfRingHistory() throws IOException {
+        Node shallow = createNode(1).withFingerTable(new FingerTable().withSuccessor(createNode(2)));
+        Node successorsSuccessor = createNode(3).withFingerTable(new FingerTable().withSuccessor(createNode(4)));
+        Node successor = new Node(createNode(2).getNodeIdentity(), new Keyspace(), new FingerTable().withSuccessor(successorsSuccessor));
+        Node deep = createNode(1).withFingerTable(new FingerTable().withSuccessor(successor));
+        Assert.assertEquals(toBytes(shallow).length, toBytes(deep).length);
+    }
+
+    @Test
+    public void testFingerTableKeepsOnlyReferences() throws IOException {
+        Node successor = createNode(2).withFingerTable(new FingerTable().withSuccessor(createNode(3)));
+        Node node = createNode(1).withFingerTable(new FingerTable().withImmediateSuccessor(successor));
+        Assert.assertEquals(successor.getNodeIdentity(), node.getFingerTable().getImmediateSuccessor().getNodeIdentity());
+        Assert.assertFalse(node.getFingerTable().getImmediateSuccessor().getFingerTable().hasSuccessors());
+        Assert.assertTrue(successor.getFingerTable().hasSuccessors());
+    }
+}
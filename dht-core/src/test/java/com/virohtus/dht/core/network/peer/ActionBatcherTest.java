@@ -0,0 +1,66 @@
+package com.virohtus.dht.core.network.peer;
+
+import com.virohtus.dht.core.action.ActionBatch;
+import com.virohtus.dht.core.action.TransportableAction;
+import com.virohtus.dht.core.engine.action.network.GetNodeRequest;
+import com.virohtus.dht.core.util.DeadlineTimer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ActionBatcherTest {
+
+    private DeadlineTimer deadlineTimer;
+    private List<TransportableAction> sent;
+
+    @Before
+    public void setup() {
+        deadlineTimer = new DeadlineTimer();
+        sent = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void teardown() {
+        deadlineTimer.shutdown();
+    }
+
+    @Test
+    public void testFullBatchSentImmediately() throws IOException {
+        ActionBatcher actionBatcher = new ActionBatcher(sent::add, deadlineTimer, 60000, 3);
+        actionBatcher.add(new GetNodeRequest());
+        actionBatcher.add(new GetNodeRequest());
+        Assert.assertTrue(sent.isEmpty());
+        actionBatcher.add(new GetNodeRequest());
+        Assert.assertEquals(1, sent.size());
+        Assert.assertEquals(3, ((ActionBatch) sent.get(0)).getActions().size());
+        Assert.assertEquals(0, actionBatcher.getPendingCount());
+    }
+
+    @Test(timeout = 5000)
+    public void testLingerFlushesSingleActionUnwrapped() throws IOException, InterruptedException {
+        ActionBatcher actionBatcher = new ActionBatcher(sent::add, deadlineTimer, 10, 64);
+        GetNodeRequest request = new GetNodeRequest();
+        actionBatcher.add(request);
+        while(sent.isEmpty()) {
+            Thread.sleep(5);
+        }
+        Assert.assertSame(request, sent.get(0));
+    }
+
+    @Test
+    public void testFlush() throws IOException {
+        ActionBatcher actionBatcher = new ActionBatcher(sent::add, deadlineTimer, 60000, 64);
+        actionBatcher.add(new GetNodeRequest());
+        actionBatcher.add(new GetNodeRequest());
+        Assert.assertEquals(2, actionBatcher.getPendingCount());
+        actionBatcher.flush();
+        Assert.assertEquals(1, sent.size());
+        Assert.assertTrue(sent.get(0) instanceof ActionBatch);
+        Assert.assertEquals(0, actionBatcher.getPendingCount());
+    }
+}
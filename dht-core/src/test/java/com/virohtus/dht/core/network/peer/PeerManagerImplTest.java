@@ -0,0 +1,76 @@
+package com.virohtus.dht.core.network.peer;
+
+import com.virohtus.dht.core.network.NodeIdentity;
+import com.virohtus.dht.core.util.Id;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+public class PeerManagerImplTest {
+
+    private PeerManagerImpl peerManager;
+    private NodeIdentity nodeIdentity;
+    private SocketAddress socketAddress;
+
+    @Before
+    public void setup() {
+        peerManager = new PeerManagerImpl();
+        socketAddress = new InetSocketAddress("localhost", 4000);
+        nodeIdentity = new NodeIdentity(new Id(0, 123), socketAddress);
+    }
+
+    @Test
+    public void testLivePeerKeepsIndex() throws PeerNotFoundException {
+        Peer first = createPeer(nodeIdentity, true);
+        Peer second = createPeer(nodeIdentity, true);
+        peerManager.addPeer(first);
+        peerManager.addPeer(second);
+        Assert.assertSame(first, peerManager.getPeer(nodeIdentity));
+        Assert.assertSame(first, peerManager.getPeer(socketAddress));
+    }
+
+    @Test
+    public void testDeadPeerReplacedOnIndex() throws PeerNotFoundException {
+        Peer dead = createPeer(nodeIdentity, false);
+        Peer live = createPeer(nodeIdentity, true);
+        peerManager.addPeer(dead);
+        peerManager.addPeer(live);
+        Assert.assertSame(live, peerManager.getPeer(nodeIdentity));
+        Assert.assertSame(live, peerManager.getPeer(socketAddress));
+    }
+
+    @Test
+    public void testDeadPeerReplacedOnLookup() throws PeerNotFoundException {
+        Peer peer = createPeer(nodeIdentity, true);
+        peerManager.addPeer(peer);
+        Peer live = createPeer(nodeIdentity, true);
+        peerManager.addPeer(live);
+        Mockito.when(peer.isListening()).thenReturn(false);
+        Assert.assertSame(live, peerManager.getPeer(socketAddress));
+        Assert.assertSame(live, peerManager.getPeer(nodeIdentity));
+    }
+
+    @Test
+    public void testDeadPeerReturnedWithoutAlternative() throws PeerNotFoundException {
+        Peer dead = createPeer(nodeIdentity, false);
+        peerManager.addPeer(dead);
+        Assert.assertSame(dead, peerManager.getPeer(socketAddress));
+    }
+
+    @Test(expected = PeerNotFoundException.class)
+    public void testUnknownAddress() throws PeerNotFoundException {
+        peerManager.getPeer(new InetSocketAddress("localhost", 4001));
+    }
+
+    private Peer createPeer(NodeIdentity nodeIdentity, boolean listening) {
+        Peer peer = Mockito.mock(Peer.class);
+        Mockito.when(peer.getId()).thenReturn(new Id(0, System.identityHashCode(peer)));
+        Mockito.when(peer.getNodeIdentity()).thenReturn(nodeIdentity);
+        Mockito.when(peer.isListening()).thenReturn(listening);
+        return peer;
+    }
+}
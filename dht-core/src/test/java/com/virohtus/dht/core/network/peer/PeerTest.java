@@ -1,6 +1,9 @@
 package com.virohtus.dht.core.network.peer;
 
 import com.virohtus.dht.core.action.Action;
+import com.virohtus.dht.core.action.ActionBatch;
+import com.virohtus.dht.core.action.ActionFactory;
+import com.virohtus.dht.core.action.TransportableAction;
 import com.virohtus.dht.core.engine.Dispatcher;
 import com.virohtus.dht.core.engine.action.peer.PeerDisconnected;
 import com.virohtus.dht.core.engine.action.network.JoinNetworkRequest;
@@ -9,7 +12,15 @@ import com.virohtus.dht.core.network.Keyspace;
 import com.virohtus.dht.core.network.Node;
 import com.virohtus.dht.core.network.NodeIdentity;
 import com.virohtus.dht.core.transport.connection.Connection;
+import com.virohtus.dht.core.engine.action.network.GetNetwork;
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityRequest;
+import com.virohtus.dht.core.engine.action.network.GetNodeIdentityResponse;
+import com.virohtus.dht.core.engine.action.network.OverloadedResponse;
+import com.virohtus.dht.core.network.Network;
 import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.util.Deadline;
+import com.virohtus.dht.core.util.Id;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -20,8 +31,14 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
 
 public class PeerTest {
 
@@ -70,9 +87,163 @@ public class PeerTest {
         Assert.assertEquals(event, eventCaptor.getValue());
     }
 
+    @Test
+    public void testSendActionOnItsStream() throws IOException {
+        GetNetwork getNetwork = new GetNetwork(new Network(new ArrayList<>()));
+        peer.send(getNetwork);
+        ArgumentCaptor<DhtEvent> eventCaptor = ArgumentCaptor.forClass(DhtEvent.class);
+        Mockito.verify(connection, Mockito.times(1)).send(eventCaptor.capture());
+        Assert.assertEquals(DhtProtocol.BULK_STREAM, eventCaptor.getValue().getHeaders().getStreamId());
+        Assert.assertArrayEquals(getNetwork.serialize(), eventCaptor.getValue().getPayload());
+    }
+
+    @Test
+    public void testUnknownStreamDropped() throws IOException {
+        Node node = new Node(new NodeIdentity(new Id(0, 123), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+        peer.dataReceived(new DhtEvent(DhtProtocol.STREAM_COUNT, new JoinNetworkRequest(node).serialize()));
+        Mockito.verify(dispatcher, Mockito.never()).dispatch(Mockito.any(Action.class));
+        Mockito.verify(connection, Mockito.never()).close();
+    }
+
+    @Test
+    public void testSendRequestResolvedByResponse() throws IOException {
+        GetNodeIdentityRequest first = new GetNodeIdentityRequest();
+        GetNodeIdentityRequest second = new GetNodeIdentityRequest();
+        CompletableFuture<GetNodeIdentityResponse> firstResponse = peer.sendRequest(first, GetNodeIdentityResponse.class);
+        CompletableFuture<GetNodeIdentityResponse> secondResponse = peer.sendRequest(second, GetNodeIdentityResponse.class);
+        Assert.assertEquals(first.getRequestId() + 1, second.getRequestId());
+
+        NodeIdentity nodeIdentity = new NodeIdentity(new Id(0, 123), new InetSocketAddress(0));
+        peer.dataReceived(new DhtEvent(new GetNodeIdentityResponse(second.getRequestId(), nodeIdentity).serialize()));
+        Assert.assertFalse(firstResponse.isDone());
+        Assert.assertTrue(secondResponse.isDone());
+        Assert.assertEquals(nodeIdentity, secondResponse.join().getNodeIdentity());
+        Assert.assertEquals(1, peer.getPendingRequestCount());
+    }
+
+    @Test
+    public void testRequestCarriesDeadline() throws IOException {
+        GetNodeIdentityRequest request = new GetNodeIdentityRequest();
+        peer.sendRequest(request, GetNodeIdentityResponse.class, 60000);
+        Assert.assertFalse(request.getDeadline().isNone());
+        Assert.assertTrue(request.getDeadline().remaining() <= 60000);
+
+        ArgumentCaptor<DhtEvent> eventCaptor = ArgumentCaptor.forClass(DhtEvent.class);
+        Mockito.verify(connection, Mockito.timeout(2000).times(1)).send(eventCaptor.capture());
+        GetNodeIdentityRequest received = (GetNodeIdentityRequest) ActionFactory.getInstance().createTransportableAction(eventCaptor.getValue());
+        Assert.assertFalse(received.isExpired());
+        Assert.assertTrue(received.getDeadline().remaining() > 50000);
+    }
+
+    @Test(timeout = 5000)
+    public void testTimedOutRequestEvicted() throws Exception {
+        CompletableFuture<GetNodeIdentityResponse> response = peer.sendRequest(new GetNodeIdentityRequest(), GetNodeIdentityResponse.class, 50);
+        try {
+            response.get();
+            Assert.fail("request should have timed out");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertEquals(0, peer.getPendingRequestCount());
+    }
+
+    @Test
+    public void testExpiredRequestFailedBeforeSending() throws Exception {
+        GetNodeIdentityRequest request = new GetNodeIdentityRequest();
+        request.setDeadline(Deadline.after(0));
+        CompletableFuture<GetNodeIdentityResponse> response = peer.sendRequest(request, GetNodeIdentityResponse.class);
+        try {
+            response.get();
+            Assert.fail("request should have expired");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        peer.flushBatched();
+        Assert.assertEquals(0, peer.getPendingRequestCount());
+        Mockito.verify(connection, Mockito.never()).send(Mockito.any());
+    }
+
+    @Test
+    public void testRequestsBatched() throws IOException {
+        GetNodeIdentityRequest first = new GetNodeIdentityRequest();
+        GetNodeIdentityRequest second = new GetNodeIdentityRequest();
+        peer.sendRequest(first, GetNodeIdentityResponse.class);
+        peer.sendRequest(second, GetNodeIdentityResponse.class);
+        peer.flushBatched();
+
+        // the linger window may close between the two sends on a busy machine, order holds either way
+        ArgumentCaptor<DhtEvent> eventCaptor = ArgumentCaptor.forClass(DhtEvent.class);
+        Mockito.verify(connection, Mockito.atMost(2)).send(eventCaptor.capture());
+        List<TransportableAction> sent = new ArrayList<>();
+        for (DhtEvent event : eventCaptor.getAllValues()) {
+            TransportableAction action = ActionFactory.getInstance().createTransportableAction(event);
+            if(action instanceof ActionBatch) {
+                sent.addAll(((ActionBatch) action).getActions());
+            } else {
+                sent.add(action);
+            }
+        }
+        Assert.assertEquals(2, sent.size());
+        Assert.assertEquals(first.getRequestId(), ((GetNodeIdentityRequest) sent.get(0)).getRequestId());
+        Assert.assertEquals(second.getRequestId(), ((GetNodeIdentityRequest) sent.get(1)).getRequestId());
+    }
+
+    @Test
+    public void testSlowRequestDoesNotBlockLaterIds() throws Exception {
+        CompletableFuture<GetNodeIdentityResponse> slow = peer.sendRequest(new GetNodeIdentityRequest(), GetNodeIdentityResponse.class);
+        NodeIdentity nodeIdentity = new NodeIdentity(new Id(0, 123), new InetSocketAddress(0));
+        for(int i = 0; i < DhtProtocol.MAX_PENDING_REQUESTS * 2; i++) {
+            GetNodeIdentityRequest request = new GetNodeIdentityRequest();
+            CompletableFuture<GetNodeIdentityResponse> response = peer.sendRequest(request, GetNodeIdentityResponse.class);
+            peer.dataReceived(new DhtEvent(new GetNodeIdentityResponse(request.getRequestId(), nodeIdentity).serialize()));
+            Assert.assertTrue(response.isDone());
+        }
+        Assert.assertFalse(slow.isDone());
+        Assert.assertEquals(1, peer.getPendingRequestCount());
+    }
+
+    @Test
+    public void testPendingRequestsFailedOnDisconnect() throws Exception {
+        CompletableFuture<GetNodeIdentityResponse> response = peer.sendRequest(new GetNodeIdentityRequest(), GetNodeIdentityResponse.class);
+        peer.listenerDisrupted();
+        Assert.assertTrue(response.isCompletedExceptionally());
+        Assert.assertEquals(0, peer.getPendingRequestCount());
+    }
+
+    @Test
+    public void testOverloadedResponseFailsRequest() throws Exception {
+        GetNodeIdentityRequest request = new GetNodeIdentityRequest();
+        CompletableFuture<GetNodeIdentityResponse> response = peer.sendRequest(request, GetNodeIdentityResponse.class);
+        peer.dataReceived(new DhtEvent(new OverloadedResponse(request.getRequestId()).serialize()));
+        try {
+            response.get();
+            Assert.fail("request should have been rejected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof PeerOverloadedException);
+        }
+        Assert.assertEquals(0, peer.getPendingRequestCount());
+        Mockito.verify(dispatcher, Mockito.never()).dispatch(Mockito.any());
+    }
+
+    @Test
+    public void testBatchUnpackedOnReceive() throws IOException {
+        CompletableFuture<GetNodeIdentityResponse> response = peer.sendRequest(new GetNodeIdentityRequest(), GetNodeIdentityResponse.class);
+        Node node = new Node(new NodeIdentity(new Id(0, 123), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+        JoinNetworkRequest request = new JoinNetworkRequest(node);
+        GetNodeIdentityResponse identityResponse = new GetNodeIdentityResponse(1, node.getNodeIdentity());
+        ActionBatch batch = new ActionBatch(DhtProtocol.CONTROL_STREAM, Arrays.asList(request, identityResponse));
+        peer.dataReceived(new DhtEvent(batch.serialize()));
+
+        ArgumentCaptor<Action> actionCaptor = ArgumentCaptor.forClass(Action.class);
+        Mockito.verify(dispatcher, Mockito.times(1)).dispatch(actionCaptor.capture());
+        Assert.assertEquals(request, actionCaptor.getValue());
+        Assert.assertSame(peer, ((JoinNetworkRequest) actionCaptor.getValue()).getSourcePeer());
+        Assert.assertTrue(response.isDone());
+    }
+
     @Test
     public void testActionDispatchedOnReceive() throws IOException {
-        Node node = new Node(new NodeIdentity("123", new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+        Node node = new Node(new NodeIdentity(new Id(0, 123), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
         JoinNetworkRequest request = new JoinNetworkRequest(node);
         DhtEvent event = new DhtEvent(request.serialize());
         peer.dataReceived(event);
@@ -81,6 +252,18 @@ public class PeerTest {
         Assert.assertEquals(request, actionCaptor.getValue());
     }
 
+    @Test
+    public void testReadsPausedWhileDispatcherSaturated() throws IOException {
+        Mockito.when(dispatcher.isSaturated()).thenReturn(true);
+        Node node = new Node(new NodeIdentity(new Id(0, 123), new InetSocketAddress(0)), new Keyspace(), new FingerTable());
+        peer.dataReceived(new DhtEvent(new JoinNetworkRequest(node).serialize()));
+        Mockito.verify(connection, Mockito.times(1)).pauseReading();
+        ArgumentCaptor<Runnable> callbackCaptor = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(dispatcher, Mockito.times(1)).whenUnsaturated(callbackCaptor.capture());
+        callbackCaptor.getValue().run();
+        Mockito.verify(connection, Mockito.times(1)).resumeReading();
+    }
+
     @Test
     public void testPeerDisconnectedActionDispatched() {
         peer.listen();
@@ -5,6 +5,8 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+        ActionBatcherTest.class,
+        PeerManagerImplTest.class,
         PeerTest.class
 })
 public class PeerTestSuite {
@@ -1,6 +1,7 @@
 package com.virohtus.dht.core.transport.connection;
 
 import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 import com.virohtus.dht.core.transport.server.AsyncServer;
 import com.virohtus.dht.core.transport.server.Server;
 import com.virohtus.dht.core.transport.server.ServerDelegate;
@@ -12,13 +13,21 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
-import java.util.concurrent.CompletableFuture;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class AsyncConnectionTest {
@@ -42,9 +51,10 @@ public class AsyncConnectionTest {
         expectedEvent = new DhtEvent(payload);
 
         invocationCount = new AtomicInteger(0);
-        Mockito.when(socketChannel.read(Mockito.any(ByteBuffer.class))).thenAnswer((invocationOnMock -> {
+        Mockito.doAnswer((invocationOnMock -> {
             ByteBuffer buffer = invocationOnMock.getArgumentAt(0, ByteBuffer.class);
-            switch (invocationCount.get()) {
+            CompletionHandler<Integer, Object> handler = invocationOnMock.getArgumentAt(4, CompletionHandler.class);
+            switch (invocationCount.getAndIncrement()) {
                 case 0:
                     buffer.put(expectedEvent.getHeaders().getBytes());
                     break;
@@ -52,21 +62,23 @@ public class AsyncConnectionTest {
                     buffer.put(expectedEvent.getPayload());
                     break;
                 default:
-                    Thread.sleep(2000);
+                    return null; // leave the read pending
             }
-            invocationCount.incrementAndGet();
-            return CompletableFuture.completedFuture(buffer.position());
-        }));
+            handler.completed(buffer.position(), invocationOnMock.getArgumentAt(3, Object.class));
+            return null;
+        })).when(socketChannel).read(Mockito.any(ByteBuffer.class), Mockito.anyLong(), Mockito.any(TimeUnit.class),
+                Mockito.any(), Mockito.any(CompletionHandler.class));
         Mockito.doThrow(new IOException()).when(socketChannel).close();
     }
 
     @Test
-    public void testStartStop() throws InterruptedException, IOException {
-        Server server = new AsyncServer(serverDelegate, executorService, new InetSocketAddress("localhost", 0));
+    public void testStartStop() throws InterruptedException, IOException, ExecutionException {
+        EventLoopGroup eventLoopGroup = new EventLoopGroup(1);
+        Server server = new AsyncServer(serverDelegate, executorService, eventLoopGroup, new InetSocketAddress("localhost", 0));
         AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open();
-        socketChannel.connect(server.getSocketAddress());
+        socketChannel.connect(server.getSocketAddress()).get();
 
-        Connection connection = new AsyncConnection(executorService, socketChannel);
+        Connection connection = new AsyncConnection(socketChannel);
         Assert.assertFalse(connection.isListening());
         connection.listen();
         Assert.assertTrue(connection.isListening());
@@ -75,11 +87,12 @@ public class AsyncConnectionTest {
         Assert.assertFalse(connection.isListening());
 
         server.shutdown();
+        eventLoopGroup.shutdown(1, TimeUnit.SECONDS);
     }
 
     @Test
     public void testDataReceived() throws IOException, InterruptedException {
-        Connection connection = new AsyncConnection(executorService, socketChannel);
+        Connection connection = new AsyncConnection(socketChannel);
         connection.setConnectionDelegate(connectionDelegate);
         connection.listen();
 
@@ -92,7 +105,7 @@ public class AsyncConnectionTest {
     @Test
     public void testDataReceivedNoPayload() throws IOException, InterruptedException {
         expectedEvent = new DhtEvent(new byte[0]);
-        Connection connection = new AsyncConnection(executorService, socketChannel);
+        Connection connection = new AsyncConnection(socketChannel);
         connection.setConnectionDelegate(connectionDelegate);
         connection.listen();
 
@@ -101,4 +114,151 @@ public class AsyncConnectionTest {
         Mockito.verify(connectionDelegate, Mockito.times(1)).dataReceived(eventCaptor.capture());
         Assert.assertEquals(expectedEvent, eventCaptor.getValue());
     }
+
+    @Test
+    public void testReadPausedUntilResumed() throws IOException {
+        AsyncConnection connection = new AsyncConnection(socketChannel);
+        Mockito.doAnswer(invocation -> {
+            connection.pauseReading();
+            return null;
+        }).when(connectionDelegate).dataReceived(Mockito.any(DhtEvent.class));
+        connection.setConnectionDelegate(connectionDelegate);
+        connection.listen();
+
+        Mockito.verify(connectionDelegate, Mockito.times(1)).dataReceived(expectedEvent);
+        Assert.assertEquals(2, invocationCount.get());
+        connection.resumeReading();
+        Assert.assertEquals(3, invocationCount.get());
+        connection.resumeReading();
+        Assert.assertEquals(3, invocationCount.get());
+    }
+
+    @Test
+    public void testUnknownStreamDroppedBeforeReassembly() throws IOException, InterruptedException {
+        expectedEvent = new DhtEvent(DhtProtocol.STREAM_COUNT, new byte[]{0, 1, 2, 4});
+        Connection connection = new AsyncConnection(socketChannel);
+        connection.setConnectionDelegate(connectionDelegate);
+        connection.listen();
+
+        Thread.sleep(200);
+        Mockito.verify(connectionDelegate, Mockito.never()).dataReceived(Mockito.any());
+        Assert.assertTrue(connection.isListening());
+    }
+
+    @Test(timeout = 5000)
+    public void testSendQueuedFrames() throws IOException, InterruptedException, ExecutionException {
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0))) {
+            AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open();
+            socketChannel.connect(serverSocketChannel.getLocalAddress()).get();
+            SocketChannel receiver = serverSocketChannel.accept();
+
+            AsyncConnection connection = new AsyncConnection(socketChannel);
+            connection.setCompressionEnabled(false);
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            for(int i = 0; i < 500; i++) {
+                DhtEvent event = new DhtEvent(new byte[] {(byte)i, (byte)(i >> 8), 7});
+                expected.write(event.getBytes());
+                connection.send(event);
+            }
+
+            ByteBuffer received = ByteBuffer.allocate(expected.size());
+            while(received.hasRemaining()) {
+                receiver.read(received);
+            }
+            Assert.assertArrayEquals(expected.toByteArray(), received.array());
+            connection.close();
+            receiver.close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testWritabilityWatermarks() throws IOException, InterruptedException, ExecutionException {
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0))) {
+            AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open();
+            socketChannel.connect(serverSocketChannel.getLocalAddress()).get();
+            SocketChannel receiver = serverSocketChannel.accept();
+
+            Connection connection = new AsyncConnection(socketChannel);
+            connection.setConnectionDelegate(connectionDelegate);
+            connection.setWriteWatermarks(512, 1024);
+            Assert.assertTrue(connection.isWritable());
+            connection.send(new DhtEvent(new byte[4096]));
+
+            Mockito.verify(connectionDelegate, Mockito.timeout(1000)).writabilityChanged(false);
+            Mockito.verify(connectionDelegate, Mockito.timeout(1000)).writabilityChanged(true);
+            Assert.assertTrue(connection.isWritable());
+            Assert.assertEquals(0, connection.getQueuedBytes());
+            connection.close();
+            receiver.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWatermarks() {
+        new AsyncConnection(socketChannel).setWriteWatermarks(10, 5);
+    }
+
+    @Test(timeout = 5000)
+    public void testCompressionNegotiated() throws IOException, InterruptedException, ExecutionException {
+        try (AsynchronousServerSocketChannel serverSocketChannel = AsynchronousServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0))) {
+            Future<AsynchronousSocketChannel> accepted = serverSocketChannel.accept();
+            AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open();
+            socketChannel.connect(serverSocketChannel.getLocalAddress()).get();
+            AsyncConnection sender = new AsyncConnection(socketChannel);
+            AsyncConnection receiver = new AsyncConnection(accepted.get());
+            ConnectionDelegate senderDelegate = Mockito.mock(ConnectionDelegate.class);
+            sender.setConnectionDelegate(senderDelegate);
+            receiver.setConnectionDelegate(connectionDelegate);
+            sender.listen();
+            receiver.listen();
+
+            Assert.assertFalse(sender.isCompressionNegotiated());
+            receiver.send(new DhtEvent(new byte[] {1}));
+            Mockito.verify(senderDelegate, Mockito.timeout(1000)).dataReceived(Mockito.any(DhtEvent.class));
+            Assert.assertTrue(sender.isCompressionNegotiated());
+
+            byte[] payload = new byte[DhtProtocol.COMPRESSION_THRESHOLD * 4];
+            sender.send(new DhtEvent(payload));
+            ArgumentCaptor<DhtEvent> eventCaptor = ArgumentCaptor.forClass(DhtEvent.class);
+            Mockito.verify(connectionDelegate, Mockito.timeout(1000)).dataReceived(eventCaptor.capture());
+            Assert.assertArrayEquals(payload, eventCaptor.getValue().getPayload());
+            Assert.assertFalse(eventCaptor.getValue().getHeaders().hasFlag(DhtProtocol.FLAG_COMPRESSED));
+            Assert.assertTrue(receiver.isCompressionNegotiated());
+
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testControlStreamNotBlockedByBulk() throws IOException, InterruptedException, ExecutionException {
+        try (AsynchronousServerSocketChannel serverSocketChannel = AsynchronousServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0))) {
+            // small fixed socket buffers keep most of the bulk message queued until the receiver starts reading
+            serverSocketChannel.setOption(StandardSocketOptions.SO_RCVBUF, 16 * 1024);
+            Future<AsynchronousSocketChannel> accepted = serverSocketChannel.accept();
+            AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open();
+            socketChannel.setOption(StandardSocketOptions.SO_SNDBUF, 16 * 1024);
+            socketChannel.connect(serverSocketChannel.getLocalAddress()).get();
+            AsyncConnection sender = new AsyncConnection(socketChannel);
+            AsyncConnection receiver = new AsyncConnection(accepted.get());
+            sender.setCompressionEnabled(false);
+            receiver.setConnectionDelegate(connectionDelegate);
+
+            byte[] bulkPayload = new byte[DhtProtocol.MAX_CHUNK_SIZE * 128 + 3];
+            bulkPayload[bulkPayload.length - 1] = 5;
+            DhtEvent bulk = new DhtEvent(DhtProtocol.BULK_STREAM, bulkPayload);
+            DhtEvent control = new DhtEvent(DhtProtocol.CONTROL_STREAM, new byte[] {1, 2, 3});
+            sender.send(bulk);
+            sender.send(control);
+            receiver.listen();
+
+            ArgumentCaptor<DhtEvent> eventCaptor = ArgumentCaptor.forClass(DhtEvent.class);
+            Mockito.verify(connectionDelegate, Mockito.timeout(2000).times(2)).dataReceived(eventCaptor.capture());
+            Assert.assertEquals(control, eventCaptor.getAllValues().get(0));
+            Assert.assertEquals(bulk, eventCaptor.getAllValues().get(1));
+
+            sender.close();
+            receiver.close();
+        }
+    }
 }
@@ -5,7 +5,10 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-        AsyncConnectionTest.class
+        AsyncConnectionTest.class,
+        EventLoopGroupTest.class,
+        FrameDecoderTest.class,
+        StreamAssemblerTest.class
 })
 public class ConnectionTestSuite {
 }
@@ -0,0 +1,125 @@
+package com.virohtus.dht.core.transport.connection;
+
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class EventLoopGroupTest {
+
+    private EventLoopGroup eventLoopGroup;
+
+    @Before
+    public void setup() throws IOException {
+        eventLoopGroup = new EventLoopGroup(2);
+    }
+
+    @After
+    public void cleanup() {
+        eventLoopGroup.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testDefaultThreadCount() {
+        Assert.assertEquals(Runtime.getRuntime().availableProcessors(), EventLoopGroup.getDefaultThreadCount());
+        Assert.assertEquals(2, eventLoopGroup.getThreadCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreadCount() throws IOException {
+        new EventLoopGroup(0);
+    }
+
+    @Test
+    public void testInstrumentedHandlerCountsBusyThreads() {
+        CompletionHandler<Integer, Void> handler = eventLoopGroup.instrument(new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                Assert.assertEquals(1, eventLoopGroup.getBusyThreadCount());
+                Assert.assertEquals(0.5, eventLoopGroup.getSaturation(), 0.0);
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+                throw new IllegalStateException(exc);
+            }
+        });
+        handler.completed(1, null);
+        Assert.assertEquals(0, eventLoopGroup.getBusyThreadCount());
+        Assert.assertEquals(1, eventLoopGroup.getPeakBusyThreadCount());
+        Assert.assertEquals(1, eventLoopGroup.getHandledEventCount());
+        Assert.assertEquals(0, eventLoopGroup.getSaturatedEventCount());
+    }
+
+    @Test
+    public void testSaturatedEvents() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletionHandler<Integer, Void> handler = eventLoopGroup.instrument(new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+            }
+        });
+        Thread first = new Thread(() -> handler.completed(1, null));
+        Thread second = new Thread(() -> handler.completed(2, null));
+        first.start();
+        second.start();
+        Assert.assertTrue(entered.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(2, eventLoopGroup.getBusyThreadCount());
+        Assert.assertEquals(1.0, eventLoopGroup.getSaturation(), 0.0);
+        release.countDown();
+        first.join();
+        second.join();
+        Assert.assertEquals(1, eventLoopGroup.getSaturatedEventCount());
+    }
+
+    @Test(timeout = 5000)
+    public void testConnectionsShareGroup() throws IOException, InterruptedException, ExecutionException {
+        try (AsynchronousServerSocketChannel serverSocketChannel = AsynchronousServerSocketChannel
+                .open(eventLoopGroup.getChannelGroup()).bind(new InetSocketAddress("localhost", 0))) {
+            Future<AsynchronousSocketChannel> accepted = serverSocketChannel.accept();
+            AsynchronousSocketChannel socketChannel = AsynchronousSocketChannel.open(eventLoopGroup.getChannelGroup());
+            socketChannel.connect(serverSocketChannel.getLocalAddress()).get();
+            AsyncConnection sender = new AsyncConnection(socketChannel, eventLoopGroup);
+            AsyncConnection receiver = new AsyncConnection(accepted.get(), eventLoopGroup);
+            ConnectionDelegate connectionDelegate = Mockito.mock(ConnectionDelegate.class);
+            receiver.setConnectionDelegate(connectionDelegate);
+            receiver.listen();
+
+            sender.send(new DhtEvent(new byte[] {1, 2, 3}));
+            Mockito.verify(connectionDelegate, Mockito.timeout(1000)).dataReceived(Mockito.any(DhtEvent.class));
+            // handlers are counted once they return, which may be after the delegate saw the data
+            long deadline = System.currentTimeMillis() + 1000;
+            while(eventLoopGroup.getHandledEventCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            Assert.assertTrue(eventLoopGroup.getHandledEventCount() >= 2);
+            Assert.assertTrue(eventLoopGroup.getLiveThreadCount() <= eventLoopGroup.getThreadCount());
+
+            sender.close();
+            receiver.close();
+        }
+    }
+}
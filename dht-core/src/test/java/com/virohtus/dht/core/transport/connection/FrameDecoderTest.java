@@ -0,0 +1,89 @@
+package com.virohtus.dht.core.transport.connection;
+
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class FrameDecoderTest {
+
+    private FrameDecoder frameDecoder;
+
+    @Before
+    public void setup() {
+        frameDecoder = new FrameDecoder(32);
+    }
+
+    @Test
+    public void testNoFrame() throws IOException {
+        Assert.assertNull(frameDecoder.nextFrame());
+    }
+
+    @Test
+    public void testPartialFrame() throws IOException {
+        DhtEvent event = new DhtEvent(new byte[]{1, 2, 3, 4});
+        byte[] data = event.getBytes();
+        frameDecoder.getReadBuffer().put(data, 0, 6);
+        Assert.assertNull(frameDecoder.nextFrame());
+        frameDecoder.getReadBuffer().put(data, 6, data.length - 6);
+        Assert.assertEquals(event, frameDecoder.nextFrame());
+        Assert.assertNull(frameDecoder.nextFrame());
+    }
+
+    @Test
+    public void testMultipleFrames() throws IOException {
+        DhtEvent first = new DhtEvent(new byte[]{1});
+        DhtEvent second = new DhtEvent(new byte[0]);
+        frameDecoder = new FrameDecoder();
+        ByteBuffer readBuffer = frameDecoder.getReadBuffer();
+        readBuffer.put(first.getBytes());
+        readBuffer.put(second.getBytes());
+        Assert.assertEquals(first, frameDecoder.nextFrame());
+        Assert.assertEquals(second, frameDecoder.nextFrame());
+        Assert.assertNull(frameDecoder.nextFrame());
+    }
+
+    @Test
+    public void testFrameLargerThanBuffer() throws IOException {
+        byte[] payload = new byte[100];
+        for(int i = 0; i < payload.length; i++) {
+            payload[i] = (byte)i;
+        }
+        DhtEvent event = new DhtEvent(payload);
+        ByteBuffer data = ByteBuffer.wrap(event.getBytes());
+        DhtEvent received = null;
+        while(received == null) {
+            ByteBuffer readBuffer = frameDecoder.getReadBuffer();
+            int chunk = Math.min(readBuffer.remaining(), data.remaining());
+            ByteBuffer slice = data.duplicate();
+            slice.limit(slice.position() + chunk);
+            readBuffer.put(slice);
+            data.position(data.position() + chunk);
+            received = frameDecoder.nextFrame();
+        }
+        Assert.assertEquals(event, received);
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidPayloadLength() throws IOException {
+        ByteBuffer readBuffer = frameDecoder.getReadBuffer();
+        readBuffer.putInt(1);
+        readBuffer.putInt(-1);
+        readBuffer.putInt(0);
+        readBuffer.putInt(0);
+        frameDecoder.nextFrame();
+    }
+
+    @Test(expected = IOException.class)
+    public void testOversizedPayloadLength() throws IOException {
+        ByteBuffer readBuffer = frameDecoder.getReadBuffer();
+        readBuffer.putInt(1);
+        readBuffer.putInt(1 << 30);
+        readBuffer.putInt(0);
+        readBuffer.putInt(0);
+        frameDecoder.getReadBuffer();
+    }
+}
@@ -0,0 +1,61 @@
+package com.virohtus.dht.core.transport.connection;
+
+import com.virohtus.dht.core.transport.protocol.DhtEvent;
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import com.virohtus.dht.core.transport.protocol.Headers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class StreamAssemblerTest {
+
+    private StreamAssembler streamAssembler;
+
+    private DhtEvent chunk(int streamId, boolean more, byte... payload) {
+        int flags = more ? DhtProtocol.FLAG_MORE_CHUNKS : 0;
+        return new DhtEvent(new Headers(DhtProtocol.PROTOCOL_VERSION, payload.length, flags, streamId), payload);
+    }
+
+    @Before
+    public void setup() {
+        streamAssembler = new StreamAssembler();
+    }
+
+    @Test
+    public void testSingleFramePassesThrough() throws IOException {
+        DhtEvent event = chunk(DhtProtocol.CONTROL_STREAM, false, (byte)1, (byte)2);
+        Assert.assertSame(event, streamAssembler.accept(event));
+        Assert.assertEquals(0, streamAssembler.getPartialStreamCount());
+    }
+
+    @Test
+    public void testInterleavedStreams() throws IOException {
+        Assert.assertNull(streamAssembler.accept(chunk(DhtProtocol.BULK_STREAM, true, (byte)1, (byte)2)));
+        DhtEvent control = chunk(DhtProtocol.CONTROL_STREAM, false, (byte)9);
+        Assert.assertSame(control, streamAssembler.accept(control));
+        Assert.assertNull(streamAssembler.accept(chunk(DhtProtocol.BULK_STREAM, true, (byte)3)));
+        Assert.assertEquals(1, streamAssembler.getPartialStreamCount());
+
+        DhtEvent bulk = streamAssembler.accept(chunk(DhtProtocol.BULK_STREAM, false, (byte)4));
+        Assert.assertEquals(new DhtEvent(DhtProtocol.BULK_STREAM, new byte[] {1, 2, 3, 4}), bulk);
+        Assert.assertEquals(0, streamAssembler.getPartialStreamCount());
+    }
+
+    @Test
+    public void testPartialBytesTracked() throws IOException {
+        streamAssembler.accept(chunk(DhtProtocol.BULK_STREAM, true, (byte)1, (byte)2));
+        streamAssembler.accept(chunk(DhtProtocol.CONTROL_STREAM, true, (byte)3));
+        Assert.assertEquals(3, streamAssembler.getPartialBytes());
+        streamAssembler.accept(chunk(DhtProtocol.BULK_STREAM, false, (byte)4));
+        Assert.assertEquals(1, streamAssembler.getPartialBytes());
+    }
+
+    @Test(expected = IOException.class)
+    public void testPartialBytesCappedAcrossStreams() throws IOException {
+        streamAssembler = new StreamAssembler(4);
+        streamAssembler.accept(chunk(DhtProtocol.BULK_STREAM, true, (byte)1, (byte)2, (byte)3));
+        streamAssembler.accept(chunk(DhtProtocol.CONTROL_STREAM, true, (byte)4, (byte)5));
+    }
+}
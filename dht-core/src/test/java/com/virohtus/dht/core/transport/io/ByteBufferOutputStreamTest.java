@@ -0,0 +1,29 @@
+package com.virohtus.dht.core.transport.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class ByteBufferOutputStreamTest {
+
+    @Test
+    public void testWritesIntoBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 3);
+        DhtOutputStream outputStream = new DhtOutputStream(new ByteBufferOutputStream(buffer));
+        outputStream.writeInt(42);
+        outputStream.write(new byte[]{1, 2, 3});
+        Assert.assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        Assert.assertEquals(42, buffer.getInt());
+        Assert.assertEquals(3, buffer.get(buffer.limit() - 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOverflow() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        DhtOutputStream outputStream = new DhtOutputStream(new ByteBufferOutputStream(buffer));
+        outputStream.writeLong(1L);
+    }
+}
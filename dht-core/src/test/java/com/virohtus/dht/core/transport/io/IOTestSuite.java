@@ -5,8 +5,10 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+        ByteBufferOutputStreamTest.class,
         DhtInputStreamTest.class,
-        DhtOutputStreamTest.class
+        DhtOutputStreamTest.class,
+        PayloadCompressorTest.class
 })
 public class IOTestSuite {
 }
@@ -0,0 +1,48 @@
+package com.virohtus.dht.core.transport.io;
+
+import com.virohtus.dht.core.transport.protocol.DhtProtocol;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class PayloadCompressorTest {
+
+    private final PayloadCompressor payloadCompressor = new PayloadCompressor();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] payload = new byte[4096];
+        for(int i = 0; i < payload.length; i++) {
+            payload[i] = (byte)(i % 7);
+        }
+        byte[] compressed = payloadCompressor.compress(payload);
+        Assert.assertNotNull(compressed);
+        Assert.assertTrue(compressed.length < payload.length);
+        Assert.assertArrayEquals(payload, payloadCompressor.decompress(compressed));
+    }
+
+    @Test
+    public void testIncompressible() {
+        byte[] payload = new byte[4096];
+        new Random(42).nextBytes(payload);
+        Assert.assertNull(payloadCompressor.compress(payload));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorrupt() throws IOException {
+        byte[] compressed = payloadCompressor.compress(new byte[4096]);
+        compressed[compressed.length / 2] ^= 0x5a;
+        compressed[compressed.length - 1] ^= 0x5a;
+        payloadCompressor.decompress(compressed);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOversizedLength() throws IOException {
+        byte[] compressed = payloadCompressor.compress(new byte[4096]);
+        ByteBuffer.wrap(compressed).putInt(DhtProtocol.MAX_MESSAGE_SIZE + 1);
+        payloadCompressor.decompress(compressed);
+    }
+}
@@ -12,11 +12,15 @@ public class HeadersTest {
 
     private int version = 0;
     private int payloadLength = 0;
+    private int flags = 0;
+    private int streamId = 0;
 
     @Before
     public void setup() {
         version = 1;
         payloadLength = 4;
+        flags = DhtProtocol.FLAG_ACCEPTS_COMPRESSION;
+        streamId = DhtProtocol.BULK_STREAM;
     }
 
     public byte[] getExpectedSerialized() throws IOException {
@@ -24,6 +28,8 @@ public class HeadersTest {
         DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
         dataOutputStream.writeInt(version);
         dataOutputStream.writeInt(payloadLength);
+        dataOutputStream.writeInt(flags);
+        dataOutputStream.writeInt(streamId);
         dataOutputStream.flush();
         return byteArrayOutputStream.toByteArray();
     }
@@ -44,9 +50,18 @@ public class HeadersTest {
     }
 
     @Test
-    public void testSerialize() throws IOException {
+    public void testCreateWithoutFlags() {
         Headers headers = new Headers(version, payloadLength);
+        Assert.assertEquals(0, headers.getFlags());
+        Assert.assertFalse(headers.hasFlag(DhtProtocol.FLAG_COMPRESSED));
+        Assert.assertEquals(DhtProtocol.CONTROL_STREAM, headers.getStreamId());
+    }
+
+    @Test
+    public void testSerialize() throws IOException {
+        Headers headers = new Headers(version, payloadLength, flags, streamId);
         byte[] serialized = headers.getBytes();
+        Assert.assertEquals(DhtProtocol.HEADER_SIZE, serialized.length);
         Assert.assertArrayEquals(getExpectedSerialized(), serialized);
     }
 
@@ -55,11 +70,19 @@ public class HeadersTest {
         Headers headers = Headers.deserialize(getExpectedSerialized());
         Assert.assertEquals(version, headers.getVersion());
         Assert.assertEquals(payloadLength, headers.getPayloadLength());
+        Assert.assertTrue(headers.hasFlag(DhtProtocol.FLAG_ACCEPTS_COMPRESSION));
+        Assert.assertFalse(headers.hasFlag(DhtProtocol.FLAG_COMPRESSED));
+        Assert.assertEquals(streamId, headers.getStreamId());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDeserializeTooShort() throws IOException {
+        Headers.deserialize(new byte[DhtProtocol.HEADER_SIZE - 1]);
     }
 
     @Test
     public void testBoth() throws IOException {
-        Headers headers = new Headers(version, payloadLength);
+        Headers headers = new Headers(version, payloadLength, flags, streamId);
         byte[] data = headers.getBytes();
         Headers reserialized = Headers.deserialize(data);
         Assert.assertEquals(headers, reserialized);
@@ -1,6 +1,7 @@
 package com.virohtus.dht.core.transport.server;
 
 import com.virohtus.dht.core.transport.connection.Connection;
+import com.virohtus.dht.core.transport.connection.EventLoopGroup;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -18,12 +19,14 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class AsyncServerTest {
 
     private static final int TEST_SERVER_PORT = 56523;
     @Mock private ServerDelegate serverDelegate;
     private ExecutorService executorService;
+    private EventLoopGroup eventLoopGroup;
     private SocketAddress socketAddress;
     private Server asyncServer;
 
@@ -32,13 +35,15 @@ public class AsyncServerTest {
         MockitoAnnotations.initMocks(this);
 
         executorService = Executors.newCachedThreadPool();
+        eventLoopGroup = new EventLoopGroup(2);
         socketAddress = new InetSocketAddress("localhost", 0);
-        asyncServer = new AsyncServer(serverDelegate, executorService, socketAddress);
+        asyncServer = new AsyncServer(serverDelegate, executorService, eventLoopGroup, socketAddress);
     }
 
     @After
     public void cleanup() {
         executorService.shutdownNow();
+        eventLoopGroup.shutdown(1, TimeUnit.SECONDS);
     }
 
     @Test
@@ -85,7 +90,7 @@ public class AsyncServerTest {
     @Test
     public void testGetSocketAddress() throws IOException {
         SocketAddress predetermined = new InetSocketAddress("localhost", TEST_SERVER_PORT);
-        asyncServer = new AsyncServer(serverDelegate, executorService, predetermined);
+        asyncServer = new AsyncServer(serverDelegate, executorService, eventLoopGroup, predetermined);
         Assert.assertEquals(predetermined, asyncServer.getSocketAddress());
         asyncServer.listen();
         Assert.assertEquals(predetermined, asyncServer.getSocketAddress());
@@ -0,0 +1,74 @@
+package com.virohtus.dht.core.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AddressResolverTest {
+
+    private static final InetAddress ADDRESS = InetAddress.getLoopbackAddress();
+    private AtomicInteger lookups;
+    private AtomicLong now;
+    private AddressResolver addressResolver;
+
+    @Before
+    public void setup() {
+        lookups = new AtomicInteger(0);
+        now = new AtomicLong(0);
+        addressResolver = new AddressResolver(2, 1000, 100, hostname -> {
+            lookups.incrementAndGet();
+            if(hostname.equals("unknown")) {
+                throw new UnknownHostException(hostname);
+            }
+            return ADDRESS;
+        }, now::get);
+    }
+
+    @Test
+    public void testCachedUntilTtl() throws UnknownHostException {
+        Assert.assertEquals(ADDRESS, addressResolver.resolve("node"));
+        Assert.assertEquals(ADDRESS, addressResolver.resolve("node"));
+        Assert.assertEquals(1, lookups.get());
+        now.set(TimeUnit.MILLISECONDS.toNanos(1000));
+        addressResolver.resolve("node");
+        Assert.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testNegativeCache() {
+        for(int i = 0; i < 2; i++) {
+            try {
+                addressResolver.resolve("unknown");
+                Assert.fail("expected UnknownHostException");
+            } catch (UnknownHostException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testBounded() throws UnknownHostException {
+        addressResolver.resolve("a");
+        addressResolver.resolve("b");
+        addressResolver.resolve("c");
+        Assert.assertEquals(2, addressResolver.size());
+        addressResolver.resolve("a");
+        Assert.assertEquals(4, lookups.get());
+    }
+
+    @Test
+    public void testResolveSocketAddress() throws UnknownHostException {
+        InetSocketAddress resolved = new InetSocketAddress(ADDRESS, 5);
+        Assert.assertSame(resolved, addressResolver.resolve(resolved));
+        Assert.assertEquals(resolved, addressResolver.resolve(InetSocketAddress.createUnresolved("node", 5)));
+        Assert.assertEquals(resolved, addressResolver.resolve(new InetSocketAddress(5)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.virohtus.dht.core.util;
+
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class DeadlineTest {
+
+    private Deadline roundTrip(Deadline deadline) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DhtOutputStream outputStream = new DhtOutputStream(byteArrayOutputStream);
+        deadline.toWire(outputStream);
+        outputStream.flush();
+        Assert.assertEquals(deadline.getWireSize(), byteArrayOutputStream.size());
+        return new Deadline(new DhtInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())));
+    }
+
+    @Test
+    public void testBudgetCarriedOverWire() throws IOException {
+        Deadline received = roundTrip(Deadline.after(60000));
+        Assert.assertFalse(received.isNone());
+        Assert.assertFalse(received.isExpired());
+        Assert.assertTrue(received.remaining() <= 60000);
+        Assert.assertTrue(received.remaining() > 50000);
+    }
+
+    @Test
+    public void testBudgetShrinksPerHop() throws IOException, InterruptedException {
+        Deadline first = roundTrip(Deadline.after(60000));
+        Thread.sleep(20);
+        Deadline second = roundTrip(first);
+        Assert.assertTrue(second.remaining() < 60000 - 10);
+    }
+
+    @Test
+    public void testExpired() throws IOException {
+        Assert.assertTrue(Deadline.after(0).isExpired());
+        Assert.assertTrue(roundTrip(Deadline.after(-5)).isExpired());
+    }
+
+    @Test
+    public void testNone() throws IOException {
+        Deadline received = roundTrip(Deadline.NONE);
+        Assert.assertTrue(received.isNone());
+        Assert.assertFalse(received.isExpired());
+        Assert.assertTrue(Deadline.after(Long.MAX_VALUE - 1).isNone());
+    }
+}
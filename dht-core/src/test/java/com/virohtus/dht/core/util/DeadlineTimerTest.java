@@ -0,0 +1,50 @@
+package com.virohtus.dht.core.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DeadlineTimerTest {
+
+    private DeadlineTimer deadlineTimer;
+
+    @Before
+    public void setup() {
+        deadlineTimer = new DeadlineTimer();
+    }
+
+    @After
+    public void teardown() {
+        deadlineTimer.shutdown();
+    }
+
+    @Test(timeout = 5000)
+    public void testDeadlineFails() throws InterruptedException {
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        CompletableFuture<String> future = deadlineTimer.withDeadline(new CompletableFuture<>(), 20, () -> timedOut.set(true));
+        try {
+            future.get();
+            Assert.fail("future should have timed out");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(timedOut.get());
+    }
+
+    @Test
+    public void testCompletionCancelsDeadline() throws Exception {
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        CompletableFuture<String> future = deadlineTimer.withDeadline(new CompletableFuture<>(), 60000, () -> timedOut.set(true));
+        Assert.assertEquals(1, deadlineTimer.getPendingCount());
+        future.complete("done");
+        Assert.assertEquals(0, deadlineTimer.getPendingCount());
+        Assert.assertEquals("done", future.get());
+        Assert.assertFalse(timedOut.get());
+    }
+}
@@ -7,7 +7,7 @@ public class IdServiceTest {
 
     @Test
     public void testGenerateId() {
-        // suck it :)
-        Assert.assertFalse(new IdService().generateId().contains("-"));
+        IdService idService = new IdService();
+        Assert.assertNotEquals(idService.generateId(), idService.generateId());
     }
 }
@@ -0,0 +1,45 @@
+package com.virohtus.dht.core.util;
+
+import com.virohtus.dht.core.transport.io.DhtInputStream;
+import com.virohtus.dht.core.transport.io.DhtOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class IdTest {
+
+    @Test
+    public void testToString() {
+        Id id = new Id(0x0123456789abcdefL, -1L);
+        Assert.assertEquals("0123456789abcdefffffffffffffffff", id.toString());
+        Assert.assertEquals(id, Id.fromString(id.toString()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromStringInvalidLength() {
+        Id.fromString("abc");
+    }
+
+    @Test
+    public void testWire() throws IOException {
+        Id id = new IdService().generateId();
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DhtOutputStream outputStream = new DhtOutputStream(byteArrayOutputStream);
+        id.toWire(outputStream);
+        outputStream.flush();
+        Assert.assertEquals(Id.SIZE, byteArrayOutputStream.size());
+        Id received = new Id(new DhtInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())));
+        Assert.assertEquals(id, received);
+        Assert.assertEquals(id.hashCode(), received.hashCode());
+    }
+
+    @Test
+    public void testCompareTo() {
+        Assert.assertTrue(new Id(0, 1).compareTo(new Id(0, -1)) < 0);
+        Assert.assertTrue(new Id(-1, 0).compareTo(new Id(1, 0)) > 0);
+        Assert.assertEquals(0, new Id(5, 6).compareTo(new Id(5, 6)));
+    }
+}
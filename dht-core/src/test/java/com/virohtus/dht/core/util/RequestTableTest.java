@@ -0,0 +1,87 @@
+package com.virohtus.dht.core.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestTableTest {
+
+    @Test
+    public void testRegisterAndRemove() {
+        RequestTable<String> table = new RequestTable<>(8);
+        Assert.assertTrue(table.register(1, "one"));
+        Assert.assertTrue(table.register(2, "two"));
+        Assert.assertEquals("one", table.get(1));
+        Assert.assertEquals(2, table.size());
+        Assert.assertEquals("one", table.remove(1));
+        Assert.assertNull(table.remove(1));
+        Assert.assertNull(table.get(1));
+        Assert.assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testSlotHeldByOlderKey() {
+        RequestTable<String> table = new RequestTable<>(8);
+        Assert.assertTrue(table.register(3, "old"));
+        Assert.assertFalse(table.register(11, "new"));
+        Assert.assertNull(table.remove(11));
+        Assert.assertEquals("old", table.remove(3));
+        Assert.assertTrue(table.register(11, "new"));
+        Assert.assertEquals("new", table.get(11));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityPowerOfTwo() {
+        new RequestTable<String>(12);
+    }
+
+    @Test
+    public void testDrain() {
+        RequestTable<String> table = new RequestTable<>(8);
+        table.register(1, "one");
+        table.register(5, "five");
+        List<String> drained = new ArrayList<>();
+        table.drain(drained::add);
+        Assert.assertEquals(2, drained.size());
+        Assert.assertEquals(0, table.size());
+        Assert.assertNull(table.get(5));
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentRemoveWonOnce() throws InterruptedException {
+        int keys = 1000;
+        RequestTable<Long> table = new RequestTable<>(1024);
+        for(long key = 0; key < keys; key++) {
+            table.register(key, key);
+        }
+        AtomicInteger removed = new AtomicInteger(0);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for(long key = 0; key < keys; key++) {
+                    if(table.remove(key) != null) {
+                        removed.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(keys, removed.get());
+        Assert.assertEquals(0, table.size());
+    }
+}
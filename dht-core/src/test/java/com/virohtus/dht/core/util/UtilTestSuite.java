@@ -5,7 +5,12 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-        IdServiceTest.class
+        AddressResolverTest.class,
+        DeadlineTest.class,
+        DeadlineTimerTest.class,
+        IdServiceTest.class,
+        IdTest.class,
+        RequestTableTest.class
 })
 public class UtilTestSuite {
 }
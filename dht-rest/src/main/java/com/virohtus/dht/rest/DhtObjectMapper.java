@@ -4,8 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.virohtus.dht.core.DhtNodeManager;
 import com.virohtus.dht.core.network.FingerTable;
+import com.virohtus.dht.core.util.Id;
 import com.virohtus.dht.rest.network.FingerTableSerializer;
 import com.virohtus.dht.rest.node.DhtNodeSerializer;
+import com.virohtus.dht.rest.node.IdSerializer;
 import com.virohtus.dht.rest.node.InetSocketAddressSerializer;
 
 import java.net.InetSocketAddress;
@@ -18,6 +20,7 @@ public class DhtObjectMapper extends ObjectMapper {
         simpleModule.addSerializer(DhtNodeManager.class, new DhtNodeSerializer());
         simpleModule.addSerializer(InetSocketAddress.class, new InetSocketAddressSerializer());
         simpleModule.addSerializer(FingerTable.class, new FingerTableSerializer());
+        simpleModule.addSerializer(Id.class, new IdSerializer());
 
         registerModule(simpleModule);
     }
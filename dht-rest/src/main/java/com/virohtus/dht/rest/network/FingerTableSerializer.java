@@ -18,9 +18,9 @@ public class FingerTableSerializer extends JsonSerializer<FingerTable> {
 
 //        jsonGenerator.writeObjectField("predecessor", fingerTable.getPredecessor());
 //        jsonGenerator.writeObjectField("successors", fingerTable.getSuccessors());
-        jsonGenerator.writeStringField("predecessor", fingerTable.getPredecessor() != null ? fingerTable.getPredecessor().getNodeIdentity().getNodeId() : null);
+        jsonGenerator.writeStringField("predecessor", fingerTable.getPredecessor() != null ? fingerTable.getPredecessor().getNodeIdentity().getNodeId().toString() : null);
         List<String> successors = new ArrayList<>();
-        fingerTable.getSuccessors().forEach(successor -> successors.add(successor.getNodeIdentity().getNodeId()));
+        fingerTable.getSuccessors().forEach(successor -> successors.add(successor.getNodeIdentity().getNodeId().toString()));
         jsonGenerator.writeObjectField("successors", successors);
 
         jsonGenerator.writeEndObject();
@@ -0,0 +1,17 @@
+package com.virohtus.dht.rest.node;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.virohtus.dht.core.util.Id;
+
+import java.io.IOException;
+
+public class IdSerializer extends JsonSerializer<Id> {
+
+    @Override
+    public void serialize(Id id, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException, JsonProcessingException {
+        jsonGenerator.writeString(id.toString());
+    }
+}
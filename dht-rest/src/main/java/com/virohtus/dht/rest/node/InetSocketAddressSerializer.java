@@ -4,7 +4,6 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import com.virohtus.dht.core.transport.protocol.DhtProtocol;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -15,7 +14,7 @@ public class InetSocketAddressSerializer extends JsonSerializer<InetSocketAddres
     public void serialize(InetSocketAddress inetSocketAddress, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException, JsonProcessingException {
         jsonGenerator.writeStartObject();
 
-        jsonGenerator.writeStringField("host", DhtProtocol.HOSTNAME);
+        jsonGenerator.writeStringField("host", inetSocketAddress.getHostString());
         jsonGenerator.writeNumberField("port", inetSocketAddress.getPort());
 
         jsonGenerator.writeEndObject();